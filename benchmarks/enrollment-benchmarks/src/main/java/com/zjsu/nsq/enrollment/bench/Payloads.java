@@ -0,0 +1,70 @@
+package com.zjsu.nsq.enrollment.bench;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试用的下游响应样本
+ * 字段与 user-service / catalog-service 实际返回的 ApiResponse 一致（含 instance 和几个解析方不关心的字段）
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    static String student(long id) {
+        return "{\"code\":200,\"message\":\"操作成功\",\"data\":{"
+                + "\"id\":" + id + ","
+                + "\"userId\":\"S2023" + id + "\","
+                + "\"name\":\"学生" + id + "\","
+                + "\"role\":\"STUDENT\","
+                + "\"major\":\"计算机科学与技术\","
+                + "\"grade\":2023,"
+                + "\"email\":\"s" + id + "@zjsu.edu.cn\","
+                + "\"phone\":\"1380000" + (1000 + id % 9000) + "\","
+                + "\"createdAt\":\"2024-09-01T08:00:00\","
+                + "\"updatedAt\":\"2024-09-01T08:00:00\"},"
+                + "\"instance\":\"user-service@10.0.0.12:8081\"}";
+    }
+
+    static String course(long id) {
+        return "{\"code\":200,\"message\":\"操作成功\",\"data\":" + courseData(id) + ","
+                + "\"instance\":\"catalog-service@10.0.0.21:8083\"}";
+    }
+
+    /**
+     * GET /api/courses 形式的课程列表响应
+     */
+    static String courseList(int size) {
+        StringBuilder json = new StringBuilder(size * 480 + 128);
+        json.append("{\"code\":200,\"message\":\"操作成功\",\"data\":[");
+        for (int i = 1; i <= size; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append(courseData(i));
+        }
+        json.append("],\"instance\":\"catalog-service@10.0.0.21:8083\"}");
+        return json.toString();
+    }
+
+    static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String courseData(long id) {
+        return "{\"id\":" + id + ","
+                + "\"code\":\"CS" + (100 + id) + "\","
+                + "\"title\":\"分布式系统设计 " + id + "\","
+                + "\"description\":\"微服务架构、服务注册与发现、负载均衡、熔断降级与分布式事务的原理与实践。\","
+                + "\"instructorName\":\"张老师\","
+                + "\"instructorEmail\":\"teacher" + id + "@zjsu.edu.cn\","
+                + "\"scheduleDay\":\"MONDAY\","
+                + "\"scheduleStartTime\":\"08:00\","
+                + "\"scheduleEndTime\":\"09:40\","
+                + "\"location\":{\"building\":\"教学楼 A\",\"room\":\"A" + (100 + id % 400) + "\"},"
+                + "\"tags\":[\"必修\",\"专业核心\",\"实验\"],"
+                + "\"capacity\":60,"
+                + "\"enrolled\":" + (id % 60) + ","
+                + "\"createdAt\":\"2024-06-01T10:00:00\"}";
+    }
+}
@@ -0,0 +1,115 @@
+package com.zjsu.nsq.enrollment.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.zjsu.nsq.commons.web.ApiResponse;
+import com.zjsu.nsq.enrollment.dto.EnrollmentView;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口响应序列化基准测试
+ * - view*：ApiResponse + EnrollmentView 记录类（当前接口的返回结构）
+ * - map*：每条记录一个 HashMap（接口改成记录类之前的返回结构，部分测试接口仍是这样）
+ * - blackbird=true 时注册 BlackbirdModule（与 JacksonConfig 相同），false 为默认的反射访问
+ * 字节分配用 -prof gc 的 gc.alloc.rate.norm（B/op）看。
+ *
+ * 运行：java -jar target/benchmarks.jar ResponseSerializationBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    @Param({"20", "500"})
+    public int listSize;
+
+    private ObjectMapper mapper;
+
+    private ApiResponse<EnrollmentView> view;
+    private ApiResponse<List<EnrollmentView>> views;
+    private ApiResponse<Map<String, Object>> map;
+    private ApiResponse<List<Map<String, Object>>> maps;
+
+    @Setup
+    public void setUp() {
+        // 与 Spring Boot 默认配置一致：JavaTimeModule，日期输出为 ISO 字符串
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+
+        LocalDateTime now = LocalDateTime.of(2024, 9, 1, 8, 0);
+        List<EnrollmentView> viewList = new ArrayList<>(listSize);
+        List<Map<String, Object>> mapList = new ArrayList<>(listSize);
+        for (int i = 1; i <= listSize; i++) {
+            EnrollmentView enrollment = new EnrollmentView((long) i, String.valueOf(i % 40 + 1),
+                    String.valueOf(1000 + i), EnrollmentStatus.ACTIVE, now.plusSeconds(i), now.plusSeconds(i));
+            viewList.add(enrollment);
+            mapList.add(toMap(enrollment));
+        }
+        view = ApiResponse.of(201, "选课成功", viewList.get(0));
+        views = ApiResponse.of(200, "Success", viewList);
+        map = ApiResponse.of(201, "选课成功", mapList.get(0));
+        maps = ApiResponse.of(200, "Success", mapList);
+    }
+
+    @Benchmark
+    public byte[] viewSingle() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(view);
+    }
+
+    @Benchmark
+    public byte[] viewList() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(views);
+    }
+
+    @Benchmark
+    public byte[] mapSingle() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(map);
+    }
+
+    @Benchmark
+    public byte[] mapList() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(maps);
+    }
+
+    private static Map<String, Object> toMap(EnrollmentView enrollment) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", enrollment.id());
+        map.put("courseId", enrollment.courseId());
+        map.put("userId", enrollment.userId());
+        map.put("status", enrollment.status());
+        map.put("enrolledAt", enrollment.enrolledAt());
+        map.put("updatedAt", enrollment.updatedAt());
+        return map;
+    }
+}
@@ -0,0 +1,200 @@
+package com.zjsu.nsq.enrollment.bench;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.dto.StudentDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下游响应解析路径基准测试
+ * - tree*：整棵 JsonNode 树 + get() 查找，作对照
+ * - databind*：Feign 解码器的做法（服务里实际的解码路径），ObjectMapper 直接映射到 StudentDto / CourseDto
+ *   （String 和 byte[] 两种输入）
+ * - courseList*：GET /api/courses 形式的大列表，listSize 控制课程数；streaming 为 token 流一次读完、其余子树跳过
+ * 字节分配用 -prof gc 的 gc.alloc.rate.norm（B/op）看。
+ *
+ * 运行：java -jar target/benchmarks.jar UpstreamParsingBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpstreamParsingBenchmark {
+
+    @Param({"20", "500"})
+    public int listSize;
+
+    // 与 Spring Boot 默认 ObjectMapper 一致：忽略未知字段
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final JsonFactory factory = mapper.getFactory();
+
+    private String studentJson;
+    private String courseJson;
+    private String courseListJson;
+    private byte[] studentBytes;
+    private byte[] courseBytes;
+    private byte[] courseListBytes;
+
+    @Setup
+    public void setUp() {
+        studentJson = Payloads.student(1001);
+        courseJson = Payloads.course(42);
+        courseListJson = Payloads.courseList(listSize);
+        studentBytes = Payloads.bytes(studentJson);
+        courseBytes = Payloads.bytes(courseJson);
+        courseListBytes = Payloads.bytes(courseListJson);
+    }
+
+    // ==================== 单个学生 ====================
+
+    @Benchmark
+    public StudentDto.Data studentTree() throws IOException {
+        JsonNode data = mapper.readTree(studentJson).get("data");
+        StudentDto.Data student = new StudentDto.Data();
+        student.setId(data.get("id").asLong());
+        student.setUserId(data.get("userId").asText());
+        student.setName(data.get("name").asText());
+        student.setRole(data.get("role").asText());
+        student.setMajor(data.get("major").asText());
+        student.setGrade(data.get("grade").asInt());
+        student.setEmail(data.get("email").asText());
+        student.setCreatedAt(data.get("createdAt").asText());
+        return student;
+    }
+
+    @Benchmark
+    public StudentDto studentDatabind() throws IOException {
+        return mapper.readValue(studentJson, StudentDto.class);
+    }
+
+    @Benchmark
+    public StudentDto studentDatabindBytes() throws IOException {
+        return mapper.readValue(studentBytes, StudentDto.class);
+    }
+
+    // ==================== 单门课程 ====================
+
+    @Benchmark
+    public CourseDto.Data courseTree() throws IOException {
+        JsonNode data = mapper.readTree(courseJson).get("data");
+        CourseDto.Data course = new CourseDto.Data();
+        course.setId(data.get("id").asLong());
+        course.setCode(data.get("code").asText());
+        course.setTitle(data.get("title").asText());
+        course.setDescription(data.get("description").asText());
+        course.setInstructorName(data.get("instructorName").asText());
+        course.setInstructorEmail(data.get("instructorEmail").asText());
+        course.setScheduleDay(data.get("scheduleDay").asText());
+        course.setScheduleStartTime(data.get("scheduleStartTime").asText());
+        course.setScheduleEndTime(data.get("scheduleEndTime").asText());
+        course.setCapacity(data.get("capacity").asInt());
+        course.setEnrolled(data.get("enrolled").asInt());
+        course.setCreatedAt(data.get("createdAt").asText());
+        return course;
+    }
+
+    @Benchmark
+    public CourseDto courseDatabind() throws IOException {
+        return mapper.readValue(courseJson, CourseDto.class);
+    }
+
+    @Benchmark
+    public CourseDto courseDatabindBytes() throws IOException {
+        return mapper.readValue(courseBytes, CourseDto.class);
+    }
+
+    // ==================== 课程列表 ====================
+
+    @Benchmark
+    public int courseListTree() throws IOException {
+        JsonNode data = mapper.readTree(courseListJson).get("data");
+        int enrolled = 0;
+        for (JsonNode course : data) {
+            enrolled += course.get("enrolled").asInt();
+        }
+        return enrolled;
+    }
+
+    @Benchmark
+    public int courseListDatabind() throws IOException {
+        CourseListResponse response = mapper.readValue(courseListBytes, CourseListResponse.class);
+        int enrolled = 0;
+        for (CourseDto.Data course : response.data()) {
+            enrolled += course.getEnrolled();
+        }
+        return enrolled;
+    }
+
+    @Benchmark
+    public int courseListStreaming() throws IOException {
+        int enrolled = 0;
+        try (com.fasterxml.jackson.core.JsonParser parser = factory.createParser(courseListBytes)) {
+            if (!seekData(parser) || parser.currentToken() != JsonToken.START_ARRAY) {
+                return 0;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("enrolled".equals(field)) {
+                        enrolled += parser.getIntValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        return enrolled;
+    }
+
+    // ==================== 工具方法 ====================
+
+    /**
+     * 跳到顶层 data 字段的值上；code 不是 200 时返回 false
+     */
+    private static boolean seekData(com.fasterxml.jackson.core.JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("code".equals(field)) {
+                if (parser.getValueAsInt() != 200) {
+                    return false;
+                }
+            } else if ("data".equals(field)) {
+                return true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record CourseListResponse(Integer code, String message, List<CourseDto.Data> data) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.zjsu.nsq.gateway.bench;
+
+import com.zjsu.nsq.gateway.config.AuthWhitelistProperties;
+import com.zjsu.nsq.gateway.filter.JwtAuthenticationFilter;
+import com.zjsu.nsq.gateway.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关认证热路径基准测试
+ * - filter*：JwtAuthenticationFilter.apply 返回的 GatewayFilter 端到端执行（含 401 响应写出），
+ *   分别覆盖白名单命中、有效 Token、过期 Token、格式错误 Token、签名被篡改的 Token
+ * - jwt*：JwtUtil.parseToken / validateToken 单独执行
+ * 每次调用都会新建 MockServerWebExchange，这部分开销在各场景中相同，可以用 baselineExchange 扣除。
+ *
+ * 运行：java -jar target/benchmarks.jar JwtAuthenticationBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    // 与网关默认配置相同的密钥（HS512）
+    private static final String SECRET = "course-gateway-secret-key-256-bit-course-gateway-secret-key-256-bit";
+
+    private static final String PROTECTED_PATH = "/api/enrollments/student/1001";
+    private static final String WHITELIST_PATH = "/api/auth/login";
+
+    // 完成时不做任何事的下游链路，只测过滤器本身
+    private static final GatewayFilterChain NOOP_CHAIN = exchange -> Mono.empty();
+
+    private JwtUtil jwtUtil;
+    private GatewayFilter filter;
+
+    private String validToken;
+    private String expiredToken;
+    private String malformedToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        jwtUtil = jwtUtil(86_400_000L);
+        // 过期时间为负数，签发即过期
+        JwtUtil expiredIssuer = jwtUtil(-60_000L);
+
+        validToken = jwtUtil.generateToken("1001", "alice", "STUDENT");
+        expiredToken = expiredIssuer.generateToken("1001", "alice", "STUDENT");
+        malformedToken = "not-a-jwt";
+        // 改动签名中间的一个字符（末位字符可能只落在 Base64 填充位上，改了也不影响签名）
+        int index = validToken.length() - 10;
+        char original = validToken.charAt(index);
+        tamperedToken = validToken.substring(0, index) + (original == 'A' ? 'B' : 'A') + validToken.substring(index + 1);
+
+        AuthWhitelistProperties whitelist = new AuthWhitelistProperties();
+        whitelist.setWhitelist(List.of(
+                "/api/auth/login", "/api/auth/register", "/auth/login", "/auth/register",
+                "/actuator/health", "/actuator/info", "/debug/", "/test/", "/swagger-ui",
+                "/v3/api-docs", "/webjars/", "/swagger-resources", "/api/users/register", "/api/users/login"));
+        filter = new JwtAuthenticationFilter(jwtUtil, whitelist).apply(new JwtAuthenticationFilter.Config());
+    }
+
+    private static JwtUtil jwtUtil(long expirationMillis) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "expiration", expirationMillis);
+        util.init();
+        return util;
+    }
+
+    // ==================== 过滤器端到端 ====================
+
+    @Benchmark
+    public MockServerWebExchange baselineExchange() {
+        return exchange(PROTECTED_PATH, validToken);
+    }
+
+    @Benchmark
+    public void filterWhitelistHit(Blackhole blackhole) {
+        run(exchange(WHITELIST_PATH, null), blackhole);
+    }
+
+    @Benchmark
+    public void filterValidToken(Blackhole blackhole) {
+        run(exchange(PROTECTED_PATH, validToken), blackhole);
+    }
+
+    @Benchmark
+    public void filterExpiredToken(Blackhole blackhole) {
+        run(exchange(PROTECTED_PATH, expiredToken), blackhole);
+    }
+
+    @Benchmark
+    public void filterMalformedToken(Blackhole blackhole) {
+        run(exchange(PROTECTED_PATH, malformedToken), blackhole);
+    }
+
+    @Benchmark
+    public void filterTamperedToken(Blackhole blackhole) {
+        run(exchange(PROTECTED_PATH, tamperedToken), blackhole);
+    }
+
+    @Benchmark
+    public void filterMissingHeader(Blackhole blackhole) {
+        run(exchange(PROTECTED_PATH, null), blackhole);
+    }
+
+    // ==================== JwtUtil ====================
+
+    @Benchmark
+    public Object jwtParseValid() {
+        return jwtUtil.parseToken(validToken);
+    }
+
+    @Benchmark
+    public boolean jwtValidateValid() {
+        return jwtUtil.validateToken(validToken);
+    }
+
+    @Benchmark
+    public boolean jwtValidateExpired() {
+        return jwtUtil.validateToken(expiredToken);
+    }
+
+    @Benchmark
+    public boolean jwtValidateMalformed() {
+        return jwtUtil.validateToken(malformedToken);
+    }
+
+    private void run(MockServerWebExchange exchange, Blackhole blackhole) {
+        filter.filter(exchange, NOOP_CHAIN).block();
+        blackhole.consume(exchange.getResponse().getStatusCode());
+    }
+
+    private static MockServerWebExchange exchange(String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
@@ -0,0 +1,290 @@
+package com.zjsu.nsq.loadtest;
+
+import com.zjsu.nsq.enrollment.EnrollmentServiceApplication;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 选课高峰压测
+ * - 进程内启动 enrollment-service（H2 代替 MySQL，SimpleDiscoveryClient 代替 Nacos），下游指向 {@link StubServers}
+ * - N 个学生同时抢 M 门课（热门课程按 hotRatio 集中），所有请求线程在同一个闸门后同时放行
+ * - 输出吞吐、延迟分位数、超选（ACTIVE 记录数超过容量）和人数漂移（课程服务记录的人数 ≠ ACTIVE 记录数）
+ * <p>
+ * 用法：java -jar target/registration-rush.jar --students=2000 --courses=20 --capacity=50 --concurrency=64
+ * 对比线程模型：同样的参数分别加 --virtualThreads=true（Java 21）和 --tomcatThreads=200 各跑一次
+ * 对比响应式接口：加 --reactive=true 压测 /api/enrollments/rx
+ */
+public class RegistrationRush {
+
+    public static void main(String[] args) throws Exception {
+        RushOptions options = RushOptions.parse(args);
+        try (StubServers stubs = new StubServers(options)) {
+            stubs.start();
+            ConfigurableApplicationContext context = startEnrollmentService(stubs, options);
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                String path = options.reactive() ? "/api/enrollments/rx" : "/api/enrollments";
+                RushResult result = rush(URI.create("http://127.0.0.1:" + port + path), options);
+                // 人数是异步回写到课程服务的，等待落地后再对账
+                Thread.sleep(options.settleMs());
+                report(options, result, stubs, context.getBean(EnrollmentRepository.class));
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    // ==================== 启动被测服务 ====================
+
+    private static ConfigurableApplicationContext startEnrollmentService(StubServers stubs, RushOptions options) {
+        Map<String, Object> props = new HashMap<>();
+        props.put("server.port", 0);
+        props.put("spring.application.name", "enrollment-service");
+        // 不连 Nacos：用 simple discovery 把两个下游指向本机桩服务
+        props.put("spring.cloud.nacos.discovery.enabled", false);
+        props.put("spring.cloud.service-registry.auto-registration.enabled", false);
+        props.put("spring.cloud.discovery.client.simple.instances.user-service[0].uri", stubs.userServiceUri());
+        props.put("spring.cloud.discovery.client.simple.instances.catalog-service[0].uri", stubs.catalogServiceUri());
+        // H2 的 MySQL 兼容模式
+        props.put("spring.datasource.url", "jdbc:h2:mem:rush;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        props.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        props.put("spring.datasource.username", "sa");
+        props.put("spring.datasource.password", "");
+        props.put("spring.datasource.hikari.maximum-pool-size", Math.max(10, options.concurrency()));
+        props.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        props.put("spring.jpa.show-sql", false);
+        // 熔断 / 舱壁与 application-prod.yml 保持一致，压测结果才有参考价值
+        props.put("spring.cloud.circuitbreaker.resilience4j.enabled", true);
+        props.put("spring.cloud.circuitbreaker.resilience4j.enable-semaphore-default-bulkhead", true);
+        props.put("spring.cloud.circuitbreaker.resilience4j.configs.default.slidingWindowSize", 5);
+        props.put("spring.cloud.circuitbreaker.resilience4j.configs.default.minimumNumberOfCalls", 3);
+        props.put("spring.cloud.circuitbreaker.resilience4j.configs.default.failureRateThreshold", 30);
+        props.put("spring.cloud.circuitbreaker.resilience4j.configs.default.waitDurationInOpenState", "5s");
+        props.put("spring.cloud.openfeign.circuitbreaker.enabled", true);
+        props.put("spring.cloud.openfeign.circuitbreaker.group.enabled", true);
+        props.put("spring.cloud.loadbalancer.retry.enabled", false);
+        // 线程模型：平台线程池（Tomcat 最大线程数）或虚拟线程（与 application-vthreads.yml 一致）
+        props.put("server.tomcat.threads.max", options.tomcatThreads());
+        if (options.virtualThreads()) {
+            props.put("spring.threads.virtual.enabled", true);
+            props.put("spring.cloud.circuitbreaker.resilience4j.disable-time-limiter", true);
+        }
+        // 压测时日志只会拖慢被测服务
+        props.put("logging.level.root", "WARN");
+        props.put("nsq.request-log.sample-rate", 0);
+
+        return new SpringApplicationBuilder(EnrollmentServiceApplication.class)
+                .properties(props)
+                .run();
+    }
+
+    // ==================== 发压 ====================
+
+    private static RushResult rush(URI endpoint, RushOptions options) throws InterruptedException {
+        List<String> bodies = buildRequests(options);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+
+        RushResult result = new RushResult(bodies.size());
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch gate = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            workers.submit(() -> {
+                gate.await();
+                int index;
+                while ((index = next.getAndIncrement()) < bodies.size()) {
+                    send(client, endpoint, bodies.get(index), result);
+                }
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        gate.countDown();
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * 每个学生选 picksPerStudent 门不同的课：按 hotRatio 落在前 20% 的热门课程上，打乱后统一发出
+     */
+    private static List<String> buildRequests(RushOptions options) {
+        Random random = new Random(42);
+        int hotCourses = Math.max(1, options.courses() / 5);
+        int picks = Math.min(options.picksPerStudent(), options.courses());
+        List<String> bodies = new ArrayList<>(options.students() * picks);
+        for (int student = 1; student <= options.students(); student++) {
+            List<Integer> chosen = new ArrayList<>(picks);
+            while (chosen.size() < picks) {
+                int course = random.nextDouble() < options.hotCourseRatio()
+                        ? 1 + random.nextInt(hotCourses)
+                        : 1 + random.nextInt(options.courses());
+                if (!chosen.contains(course)) {
+                    chosen.add(course);
+                }
+            }
+            for (int course : chosen) {
+                bodies.add("{\"courseId\":\"" + course + "\",\"userId\":\"" + student + "\"}");
+            }
+        }
+        Collections.shuffle(bodies, random);
+        return bodies;
+    }
+
+    private static void send(HttpClient client, URI endpoint, String body, RushResult result) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            result.record(System.nanoTime() - start, classify(response));
+        } catch (Exception e) {
+            result.record(System.nanoTime() - start, Outcome.ERROR);
+        }
+    }
+
+    private static Outcome classify(HttpResponse<String> response) {
+        if (response.statusCode() == 201) {
+            return Outcome.ENROLLED;
+        }
+        String body = response.body();
+        if (response.statusCode() == 400 && body != null) {
+            if (body.contains("课程已满")) {
+                return Outcome.COURSE_FULL;
+            }
+            if (body.contains("已选")) {
+                return Outcome.DUPLICATE;
+            }
+        }
+        return Outcome.ERROR;
+    }
+
+    // ==================== 报告 ====================
+
+    private static void report(RushOptions options, RushResult result, StubServers stubs,
+                               EnrollmentRepository repository) {
+        long[] latencies = result.sortedLatencies();
+        double seconds = result.elapsedNanos / 1_000_000_000.0;
+
+        System.out.println();
+        System.out.println("==================== 选课高峰压测 ====================");
+        System.out.printf("students=%d courses=%d capacity=%d picks=%d hotRatio=%.2f concurrency=%d%n",
+                options.students(), options.courses(), options.capacity(), options.picksPerStudent(),
+                options.hotCourseRatio(), options.concurrency());
+        System.out.printf("endpoint=%s threads=%s%n", options.reactive() ? "reactive" : "blocking",
+                options.virtualThreads() ? "virtual" : "platform (tomcat max " + options.tomcatThreads() + ")");
+        System.out.printf("stub latency user=%dms catalog=%dms failureRate=%.3f (injected failures=%d)%n",
+                options.userLatencyMs(), options.catalogLatencyMs(), options.failureRate(),
+                stubs.injectedFailures());
+        System.out.printf("requests=%d elapsed=%.2fs throughput=%.1f req/s%n",
+                latencies.length, seconds, latencies.length / seconds);
+        System.out.printf("latency p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.95)),
+                millis(percentile(latencies, 0.99)), millis(latencies.length > 0 ? latencies[latencies.length - 1] : 0));
+        System.out.printf("outcomes enrolled=%d full=%d duplicate=%d error=%d%n",
+                result.count(Outcome.ENROLLED), result.count(Outcome.COURSE_FULL),
+                result.count(Outcome.DUPLICATE), result.count(Outcome.ERROR));
+
+        // 对账：ACTIVE 记录数 vs 容量（超选）、vs 课程服务记录的人数（漂移）
+        long overEnrolled = 0;
+        long drift = 0;
+        int overEnrolledCourses = 0;
+        int driftedCourses = 0;
+        for (int course = 1; course <= options.courses(); course++) {
+            long active = repository.countByCourseIdAndStatus(String.valueOf(course), EnrollmentStatus.ACTIVE);
+            long over = active - options.capacity();
+            if (over > 0) {
+                overEnrolled += over;
+                overEnrolledCourses++;
+            }
+            long diff = Math.abs(active - stubs.reportedEnrolled(course));
+            if (diff > 0) {
+                drift += diff;
+                driftedCourses++;
+            }
+        }
+        System.out.printf("over-enrollment seats=%d courses=%d%n", overEnrolled, overEnrolledCourses);
+        System.out.printf("count drift seats=%d courses=%d (settle=%dms)%n", drift, driftedCourses, options.settleMs());
+        System.out.println("======================================================");
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // ==================== 内部类 ====================
+
+    private enum Outcome {
+        ENROLLED, COURSE_FULL, DUPLICATE, ERROR
+    }
+
+    /**
+     * 压测结果：每个请求的耗时（纳秒）和结果分类
+     */
+    private static final class RushResult {
+        private final long[] latencies;
+        private final AtomicInteger recorded = new AtomicInteger();
+        private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+        private long elapsedNanos;
+
+        RushResult(int expected) {
+            this.latencies = new long[expected];
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+
+        void record(long latencyNanos, Outcome outcome) {
+            latencies[recorded.getAndIncrement()] = latencyNanos;
+            outcomes[outcome.ordinal()].increment();
+        }
+
+        long count(Outcome outcome) {
+            return outcomes[outcome.ordinal()].sum();
+        }
+
+        long[] sortedLatencies() {
+            long[] copy = Arrays.copyOf(latencies, recorded.get());
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.zjsu.nsq.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压测参数（命令行 --name=value）
+ *
+ * @param students         学生数
+ * @param courses          课程数
+ * @param capacity         每门课容量
+ * @param picksPerStudent  每个学生尝试选的课程数
+ * @param hotCourseRatio   选择热门课程（前 20%）的概率
+ * @param concurrency      并发请求线程数
+ * @param userLatencyMs    用户服务桩的响应延迟
+ * @param catalogLatencyMs 课程服务桩的响应延迟
+ * @param failureRate      桩服务返回 500 的概率（0~1）
+ * @param settleMs         压测结束后等待异步人数更新落地的时间
+ * @param virtualThreads   被测服务是否开启虚拟线程（需要 Java 21 运行时）
+ * @param tomcatThreads    平台线程模式下 Tomcat 的最大工作线程数
+ * @param reactive         压测响应式接口 /api/enrollments/rx 而不是 /api/enrollments
+ */
+public record RushOptions(int students, int courses, int capacity, int picksPerStudent, double hotCourseRatio,
+                          int concurrency, long userLatencyMs, long catalogLatencyMs, double failureRate,
+                          long settleMs, boolean virtualThreads, int tomcatThreads,
+                          boolean reactive) {
+
+    public static RushOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new RushOptions(
+                intValue(values, "students", 2000),
+                intValue(values, "courses", 20),
+                intValue(values, "capacity", 50),
+                intValue(values, "picks", 3),
+                doubleValue(values, "hotRatio", 0.6),
+                intValue(values, "concurrency", 64),
+                longValue(values, "userLatencyMs", 5),
+                longValue(values, "catalogLatencyMs", 10),
+                doubleValue(values, "failureRate", 0.0),
+                longValue(values, "settleMs", 2000),
+                Boolean.parseBoolean(values.getOrDefault("virtualThreads", "false")),
+                intValue(values, "tomcatThreads", 200),
+                Boolean.parseBoolean(values.getOrDefault("reactive", "false")));
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+    }
+
+    private static long longValue(Map<String, String> values, String key, long defaultValue) {
+        return values.containsKey(key) ? Long.parseLong(values.get(key)) : defaultValue;
+    }
+
+    private static double doubleValue(Map<String, String> values, String key, double defaultValue) {
+        return values.containsKey(key) ? Double.parseDouble(values.get(key)) : defaultValue;
+    }
+}
@@ -0,0 +1,158 @@
+package com.zjsu.nsq.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的 user-service / catalog-service 桩（JDK HttpServer，只监听 127.0.0.1）
+ * - 响应格式与真实服务的 ApiResponse 一致，能被 StudentDto / CourseDto 反序列化
+ * - 可配置延迟和失败率（返回 500，触发 Feign 熔断 / 降级）
+ * - 课程桩记录 PUT /api/courses/{id}/enrolled 写入的人数，用于计算人数漂移
+ */
+public class StubServers implements AutoCloseable {
+
+    private final RushOptions options;
+    private final AtomicIntegerArray enrolled;
+    private final LongAdder injectedFailures = new LongAdder();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "stub-http");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HttpServer userServer;
+    private HttpServer catalogServer;
+
+    public StubServers(RushOptions options) {
+        this.options = options;
+        this.enrolled = new AtomicIntegerArray(options.courses() + 1);
+    }
+
+    public void start() throws IOException {
+        userServer = server();
+        userServer.createContext("/api/users/students/", this::handleStudent);
+        userServer.start();
+
+        catalogServer = server();
+        catalogServer.createContext("/api/courses/", this::handleCourse);
+        catalogServer.start();
+    }
+
+    public String userServiceUri() {
+        return "http://127.0.0.1:" + userServer.getAddress().getPort();
+    }
+
+    public String catalogServiceUri() {
+        return "http://127.0.0.1:" + catalogServer.getAddress().getPort();
+    }
+
+    /**
+     * 课程桩当前记录的已选人数（由 enrollment-service 异步写入）
+     */
+    public int reportedEnrolled(int courseId) {
+        return enrolled.get(courseId);
+    }
+
+    public long injectedFailures() {
+        return injectedFailures.sum();
+    }
+
+    private HttpServer server() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        server.setExecutor(executor);
+        return server;
+    }
+
+    private void handleStudent(HttpExchange exchange) throws IOException {
+        if (delayOrFail(exchange, options.userLatencyMs())) {
+            return;
+        }
+        String id = lastSegment(exchange.getRequestURI());
+        write(exchange, 200, "{\"code\":200,\"message\":\"ok\",\"data\":{\"id\":" + id
+                + ",\"userId\":\"S" + id + "\",\"name\":\"student-" + id + "\",\"role\":\"STUDENT\"}}");
+    }
+
+    private void handleCourse(HttpExchange exchange) throws IOException {
+        if (delayOrFail(exchange, options.catalogLatencyMs())) {
+            return;
+        }
+        URI uri = exchange.getRequestURI();
+        String[] segments = uri.getPath().split("/");
+        // /api/courses/{id} 或 /api/courses/{id}/enrolled?count=N
+        int courseId = Integer.parseInt(segments[3]);
+        if (courseId < 1 || courseId > options.courses()) {
+            write(exchange, 404, "{\"code\":404,\"message\":\"课程不存在\",\"data\":null}");
+            return;
+        }
+        if ("PUT".equals(exchange.getRequestMethod()) && segments.length > 4 && "enrolled".equals(segments[4])) {
+            enrolled.set(courseId, Integer.parseInt(queryValue(uri, "count")));
+            write(exchange, 200, "{\"code\":200,\"message\":\"ok\",\"data\":null}");
+            return;
+        }
+        write(exchange, 200, "{\"code\":200,\"message\":\"ok\",\"data\":{\"id\":" + courseId
+                + ",\"code\":\"C" + courseId + "\",\"title\":\"course-" + courseId
+                + "\",\"capacity\":" + options.capacity() + ",\"enrolled\":" + enrolled.get(courseId) + "}}");
+    }
+
+    private boolean delayOrFail(HttpExchange exchange, long latencyMs) throws IOException {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (options.failureRate() > 0 && ThreadLocalRandom.current().nextDouble() < options.failureRate()) {
+            injectedFailures.increment();
+            write(exchange, 500, "{\"code\":500,\"message\":\"injected failure\",\"data\":null}");
+            return true;
+        }
+        return false;
+    }
+
+    private static String lastSegment(URI uri) {
+        String path = uri.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String queryValue(URI uri, String name) {
+        for (String pair : uri.getRawQuery().split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return "0";
+    }
+
+    private static void write(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (userServer != null) {
+            userServer.stop(0);
+        }
+        if (catalogServer != null) {
+            catalogServer.stop(0);
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,220 @@
+package com.zjsu.nsq.commons.autoconfigure;
+
+import com.zjsu.nsq.commons.exception.CommonExceptionHandler;
+import com.zjsu.nsq.commons.instance.InstanceIdentity;
+import com.zjsu.nsq.commons.instance.LoadBalancedRequestLogger;
+import com.zjsu.nsq.commons.jdbc.QueryStatsDataSourcePostProcessor;
+import com.zjsu.nsq.commons.jdbc.QueryStatsEndpoint;
+import com.zjsu.nsq.commons.jdbc.QueryStatsInterceptor;
+import com.zjsu.nsq.commons.jdbc.QueryStatsListener;
+import com.zjsu.nsq.commons.jdbc.QueryStatsRegistry;
+import com.zjsu.nsq.commons.metrics.LatencyHistogramMeterFilter;
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.commons.trace.SpanStore;
+import com.zjsu.nsq.commons.trace.Tracer;
+import com.zjsu.nsq.commons.trace.TracesEndpoint;
+import com.zjsu.nsq.commons.trace.TracingFilter;
+import com.zjsu.nsq.commons.vthread.VirtualThreadPinningMonitor;
+import com.zjsu.nsq.commons.web.TimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 公共模块自动配置（通过 META-INF/spring/...AutoConfiguration.imports 注册，服务无需额外注解）
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+public class PerformanceCommonsAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public InstanceIdentity instanceIdentity(@Value("${spring.application.name:application}") String serviceName,
+                                             @Value("${server.port:8080}") String serverPort,
+                                             @Value("${nsq.instance.refresh-interval:30s}") Duration refreshInterval) {
+        InstanceIdentity identity = new InstanceIdentity(serviceName, serverPort);
+        identity.startRefreshing(refreshInterval);
+        return identity;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LoadBalancedRequestLogger loadBalancedRequestLogger(InstanceIdentity instanceIdentity,
+                                                               @Value("${nsq.request-log.sample-rate:0.01}") double sampleRate) {
+        return new LoadBalancedRequestLogger(instanceIdentity, sampleRate);
+    }
+
+    /**
+     * 所有指标统一带上 application 标签，多个服务的指标可以在同一个 Prometheus 里区分
+     */
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> commonTagsCustomizer(
+            @Value("${spring.application.name:application}") String serviceName) {
+        return registry -> registry.config().commonTags("application", serviceName);
+    }
+
+    /**
+     * 框架自带的耗时指标（端点、Feign、Repository、网关路由）统一打开百分位直方图
+     */
+    @Bean
+    public MeterFilter latencyHistogramMeterFilter(
+            @Value("${nsq.metrics.histogram-meters:http.server.requests,http.client.requests,"
+                    + "spring.data.repository.invocations,spring.cloud.gateway.requests}") List<String> meters) {
+        return new LatencyHistogramMeterFilter(meters);
+    }
+
+    @Bean
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnMissingBean
+    public PerfMetrics perfMetrics(MeterRegistry meterRegistry) {
+        return new PerfMetrics(meterRegistry);
+    }
+
+    // ==================== 调用链 ====================
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SpanStore spanStore(@Value("${nsq.tracing.span-store-size:2048}") int capacity) {
+        return new SpanStore(capacity);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Tracer tracer(SpanStore spanStore, @Value("${spring.application.name:application}") String serviceName) {
+        return new Tracer(spanStore, serviceName);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TracesEndpoint tracesEndpoint(SpanStore spanStore,
+                                         @Value("${nsq.tracing.slow-threshold-ms:500}") long slowThresholdMs) {
+        return new TracesEndpoint(spanStore, slowThresholdMs);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication
+    @ConditionalOnMissingBean
+    public CommonExceptionHandler commonExceptionHandler() {
+        return new CommonExceptionHandler();
+    }
+
+    /**
+     * Servlet 服务的入口 span 和 MDC（在其他过滤器之前，后续日志都能带上 traceId）
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletTracingConfiguration {
+
+        @Bean
+        public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer) {
+            FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer));
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+            return registration;
+        }
+    }
+
+    /**
+     * Spring MVC 服务（catalog / user / enrollment）的 Controller 计时
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(WebMvcConfigurer.class)
+    @ConditionalOnBean(MeterRegistry.class)
+    static class ServletTimingConfiguration {
+
+        @Bean
+        public TimingInterceptor timingInterceptor(PerfMetrics perfMetrics) {
+            return new TimingInterceptor(perfMetrics);
+        }
+
+        @Bean
+        public WebMvcConfigurer timingInterceptorConfigurer(TimingInterceptor timingInterceptor) {
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry registry) {
+                    registry.addInterceptor(timingInterceptor).addPathPatterns("/api/**");
+                }
+            };
+        }
+    }
+
+    /**
+     * SQL 统计（datasource-proxy）：每个请求的语句数 / 行数 / 耗时、疑似 N+1、慢语句
+     * 只在引入了 datasource-proxy 的 JPA 服务中生效，nsq.query-stats.enabled=false 可关闭
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(name = "net.ttddyy.dsproxy.support.ProxyDataSourceBuilder")
+    @ConditionalOnProperty(prefix = "nsq.query-stats", name = "enabled", matchIfMissing = true)
+    static class QueryStatsConfiguration {
+
+        @Bean
+        public QueryStatsRegistry queryStatsRegistry(@Value("${nsq.query-stats.n-plus-one-threshold:10}") int threshold) {
+            return new QueryStatsRegistry(threshold);
+        }
+
+        @Bean
+        public QueryStatsListener queryStatsListener(QueryStatsRegistry registry,
+                                                     @Value("${nsq.query-stats.slow-threshold-ms:200}") long slowMs) {
+            return new QueryStatsListener(registry, slowMs);
+        }
+
+        @Bean
+        public static QueryStatsDataSourcePostProcessor queryStatsDataSourcePostProcessor(
+                ObjectProvider<QueryStatsListener> listener) {
+            return new QueryStatsDataSourcePostProcessor(listener);
+        }
+
+        @Bean
+        public QueryStatsEndpoint queryStatsEndpoint(QueryStatsRegistry registry,
+                                                     @Value("${nsq.query-stats.slow-threshold-ms:200}") long slowMs) {
+            return new QueryStatsEndpoint(registry, slowMs);
+        }
+
+        @Bean
+        public WebMvcConfigurer queryStatsInterceptorConfigurer(QueryStatsRegistry registry) {
+            QueryStatsInterceptor interceptor = new QueryStatsInterceptor(registry);
+            return new WebMvcConfigurer() {
+                @Override
+                public void addInterceptors(InterceptorRegistry interceptors) {
+                    interceptors.addInterceptor(interceptor).addPathPatterns("/api/**");
+                }
+            };
+        }
+    }
+
+    /**
+     * 虚拟线程模式（spring.threads.virtual.enabled=true，Java 21+）下的固定诊断，
+     * nsq.virtual-threads.pinning.enabled=false 可关闭
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnProperty(prefix = "nsq.virtual-threads.pinning", name = "enabled", matchIfMissing = true)
+    static class VirtualThreadPinningConfiguration {
+
+        @Bean
+        public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                @Value("${nsq.virtual-threads.pinning.threshold:20ms}") Duration threshold) {
+            return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+        }
+    }
+}
@@ -1,7 +1,8 @@
-package com.zjsu.nsq.enrollment.exception;
+package com.zjsu.nsq.commons.exception;
 
 /**
- * 自定义异常：资源不存在（学生、课程、选课记录等找不到时抛出）
+ * 自定义异常：资源不存在（课程、学生、选课记录等找不到时抛出）
+ * 由 CommonExceptionHandler 统一转换为 404 响应
  */
 public class ResourceNotFoundException extends RuntimeException {
 
@@ -14,4 +15,4 @@ public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
         super(message);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.zjsu.nsq.commons.instance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 当前实例的身份信息（IP + 端口）
+ * 启动时解析一次并缓存，接口和日志直接读取，不再在每个请求里调用 InetAddress.getLocalHost()。
+ * 后台线程定期读取本机网卡地址（不走 DNS），网络变化（容器迁移、DHCP 续租）后自动更新。
+ */
+public class InstanceIdentity implements ApplicationListener<WebServerInitializedEvent>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceIdentity.class);
+
+    private final String serviceName;
+    private volatile String hostAddress;
+    private volatile String port;
+    private volatile String description;
+    private ScheduledExecutorService refresher;
+
+    public InstanceIdentity(String serviceName, String configuredPort) {
+        this.serviceName = serviceName;
+        this.port = configuredPort;
+        this.hostAddress = resolveHostAddress();
+        this.description = describe(hostAddress, port);
+    }
+
+    /**
+     * 端口以 Web 服务器实际监听的为准（server.port=0 时也能拿到真实端口）
+     */
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        this.port = String.valueOf(event.getWebServer().getPort());
+        this.description = describe(hostAddress, port);
+        log.info("实例信息 - service: {}, {}", serviceName, description);
+    }
+
+    /**
+     * 启动后台刷新；interval 为 0 或负数时不刷新
+     */
+    public synchronized void startRefreshing(Duration interval) {
+        if (refresher != null || interval.isZero() || interval.isNegative()) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "instance-identity-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 重新读取本机地址，有变化时更新缓存
+     */
+    public void refresh() {
+        String current = resolveHostAddress();
+        if (current != null && !current.equals(hostAddress)) {
+            log.info("实例地址变化 - service: {}, {} -> {}", serviceName, hostAddress, current);
+            this.hostAddress = current;
+            this.description = describe(current, port);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    public String serviceName() {
+        return serviceName;
+    }
+
+    public String hostAddress() {
+        return hostAddress;
+    }
+
+    public String port() {
+        return port;
+    }
+
+    /**
+     * 形如 "IP: 10.0.0.5, Port: 8081"，与原先各 Controller 中 getInstanceInfo() 的格式一致
+     */
+    public String describe() {
+        return description;
+    }
+
+    /**
+     * 优先取第一块已启用、非回环网卡上的 IPv4 地址；取不到时才退回 InetAddress.getLocalHost()
+     */
+    private static String resolveHostAddress() {
+        try {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces != null && interfaces.hasMoreElements()) {
+                NetworkInterface networkInterface = interfaces.nextElement();
+                if (!networkInterface.isUp() || networkInterface.isLoopback() || networkInterface.isVirtual()) {
+                    continue;
+                }
+                Enumeration<InetAddress> addresses = networkInterface.getInetAddresses();
+                while (addresses.hasMoreElements()) {
+                    InetAddress address = addresses.nextElement();
+                    if (address instanceof Inet4Address && !address.isLoopbackAddress()
+                            && !address.isLinkLocalAddress()) {
+                        return address.getHostAddress();
+                    }
+                }
+            }
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (Exception e) {
+            log.warn("无法解析本机地址: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String describe(String hostAddress, String port) {
+        return hostAddress != null ? "IP: " + hostAddress + ", Port: " + port : "Port: " + port;
+    }
+}
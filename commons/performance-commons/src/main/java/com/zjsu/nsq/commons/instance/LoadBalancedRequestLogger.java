@@ -0,0 +1,38 @@
+package com.zjsu.nsq.commons.instance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 负载均衡请求日志（原先每个 Controller 各有一份 logLoadBalancedRequest）
+ * - 按采样率记录，默认只记录 1% 的请求
+ * - 输出到名为 nsq.request 的 logger，由 logback 的异步 appender 写出，请求线程只负责入队
+ * - key=value 结构化格式，时间戳交给日志框架输出
+ */
+public class LoadBalancedRequestLogger {
+
+    public static final String LOGGER_NAME = "nsq.request";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final InstanceIdentity identity;
+    private final double sampleRate;
+
+    public LoadBalancedRequestLogger(InstanceIdentity identity, double sampleRate) {
+        this.identity = identity;
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+    }
+
+    public void log(String methodName, String param) {
+        if (sampleRate <= 0 || !log.isInfoEnabled()) {
+            return;
+        }
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        log.info("service={} instance=\"{}\" handler={} param=\"{}\"",
+                identity.serviceName(), identity.describe(), methodName, param);
+    }
+}
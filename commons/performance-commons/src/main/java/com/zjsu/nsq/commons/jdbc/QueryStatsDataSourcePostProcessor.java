@@ -0,0 +1,35 @@
+package com.zjsu.nsq.commons.jdbc;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * 用 datasource-proxy 包装应用的 DataSource
+ * 包装后仍可 unwrap 到 HikariDataSource，Hikari 连接池指标不受影响。
+ */
+public class QueryStatsDataSourcePostProcessor implements BeanPostProcessor {
+
+    // BeanPostProcessor 创建得很早，监听器延迟获取
+    private final ObjectProvider<QueryStatsListener> listener;
+
+    public QueryStatsDataSourcePostProcessor(ObjectProvider<QueryStatsListener> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        QueryStatsListener queryStatsListener = listener.getObject();
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(queryStatsListener)
+                .methodListener(queryStatsListener)
+                .proxyResultSet()
+                .build();
+    }
+}
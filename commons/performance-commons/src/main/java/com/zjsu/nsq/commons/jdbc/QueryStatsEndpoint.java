@@ -0,0 +1,40 @@
+package com.zjsu.nsq.commons.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/querystats：按端点汇总的 SQL 语句数、读取行数、耗时、疑似 N+1 次数，以及最近的慢语句
+ * DELETE 清空统计（发版或压测前后对比用）
+ */
+@Endpoint(id = "querystats")
+public class QueryStatsEndpoint {
+
+    private final QueryStatsRegistry registry;
+    private final long slowThresholdMs;
+
+    public QueryStatsEndpoint(QueryStatsRegistry registry, long slowThresholdMs) {
+        this.registry = registry;
+        this.slowThresholdMs = slowThresholdMs;
+    }
+
+    @ReadOperation
+    public QueryStatsReport report() {
+        return new QueryStatsReport(registry.nPlusOneThreshold(), slowThresholdMs,
+                registry.endpointSummaries(), registry.slowStatements());
+    }
+
+    @DeleteOperation
+    public void reset() {
+        registry.reset();
+    }
+
+    public record QueryStatsReport(int nPlusOneThreshold, long slowThresholdMs,
+                                   Map<String, QueryStatsRegistry.EndpointSummary> endpoints,
+                                   List<QueryStatsRegistry.SlowStatement> slowStatements) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.zjsu.nsq.commons.jdbc;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 为每个 Controller 请求开启一份 RequestQueryStats，结束时按 Class#method 汇总到 QueryStatsRegistry
+ * 异步处理（Mono、SseEmitter、DeferredResult 等）的请求线程在 Controller 方法返回后就被释放，
+ * 不会走到 afterCompletion：在 afterConcurrentHandlingStarted 里结束统计并清理 ThreadLocal；
+ * 之后的 ASYNC 再分发不再开启新的统计，同一请求只记一次
+ */
+public class QueryStatsInterceptor implements AsyncHandlerInterceptor {
+
+    private final QueryStatsRegistry registry;
+
+    public QueryStatsInterceptor(QueryStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            RequestQueryStats.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        record(handler, RequestQueryStats.end());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        record(handler, RequestQueryStats.end());
+    }
+
+    private void record(Object handler, RequestQueryStats stats) {
+        if (stats != null && handler instanceof HandlerMethod handlerMethod) {
+            registry.recordRequest(handlerMethod.getBeanType().getSimpleName() + "#"
+                    + handlerMethod.getMethod().getName(), stats);
+        }
+    }
+}
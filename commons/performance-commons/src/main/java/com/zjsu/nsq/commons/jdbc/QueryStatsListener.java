@@ -0,0 +1,110 @@
+package com.zjsu.nsq.commons.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * datasource-proxy 监听器
+ * - 每条语句累加到当前请求的 RequestQueryStats（语句数、耗时）
+ * - ResultSet.next() 返回 true 时累加读取行数
+ * - 超过阈值的慢语句写入 nsq.sql.slow 日志，并记入 QueryStatsRegistry
+ *   绑定参数里可能有密码、手机号：WARN 日志和 Registry 只记录参数类型和长度，
+ *   实际取值只在 nsq.sql.slow 开到 DEBUG 时输出
+ */
+public class QueryStatsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Logger slowLog = LoggerFactory.getLogger("nsq.sql.slow");
+
+    private final QueryStatsRegistry registry;
+    private final long slowThresholdMs;
+
+    public QueryStatsListener(QueryStatsRegistry registry, long slowThresholdMs) {
+        this.registry = registry;
+        this.slowThresholdMs = slowThresholdMs;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.onStatement(execInfo.isBatch() ? Math.max(1, execInfo.getBatchSize()) : 1, elapsed);
+        }
+        if (elapsed < slowThresholdMs) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            String parameterTypes = formatParameters(queryInfo, false);
+            slowLog.warn("elapsed_ms={} success={} sql=\"{}\" params={}",
+                    elapsed, execInfo.isSuccess(), queryInfo.getQuery(), parameterTypes);
+            if (slowLog.isDebugEnabled()) {
+                slowLog.debug("elapsed_ms={} sql=\"{}\" param_values={}",
+                        elapsed, queryInfo.getQuery(), formatParameters(queryInfo, true));
+            }
+            registry.recordSlowStatement(queryInfo.getQuery(), parameterTypes, elapsed);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null) {
+                stats.onRow();
+            }
+        }
+    }
+
+    private static String formatParameters(QueryInfo queryInfo, boolean withValues) {
+        List<String> batches = new ArrayList<>();
+        for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+            List<String> values = new ArrayList<>(operations.size());
+            for (ParameterSetOperation operation : operations) {
+                Object[] args = operation.getArgs();
+                if (args.length <= 1) {
+                    values.add("?");
+                } else {
+                    values.add(withValues ? String.valueOf(args[1]) : describe(args[1]));
+                }
+            }
+            batches.add(values.toString());
+        }
+        return batches.size() == 1 ? batches.get(0) : batches.toString();
+    }
+
+    /**
+     * 只保留类型和长度，例如 String(12)、byte[16]、Long
+     */
+    private static String describe(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        if (value instanceof byte[] bytes) {
+            return "byte[" + bytes.length + "]";
+        }
+        return value.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,117 @@
+package com.zjsu.nsq.commons.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按端点汇总的 SQL 统计，以及最近的慢语句（有界）
+ * 单个请求的语句数超过 nPlusOneThreshold 时记为疑似 N+1，每个端点每分钟最多告警一次。
+ */
+public class QueryStatsRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger("nsq.sql");
+
+    private static final int MAX_SLOW_STATEMENTS = 50;
+    private static final long WARN_INTERVAL_MILLIS = 60_000;
+
+    private final int nPlusOneThreshold;
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Deque<SlowStatement> slowStatements = new ArrayDeque<>();
+
+    public QueryStatsRegistry(int nPlusOneThreshold) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    public void recordRequest(String endpoint, RequestQueryStats stats) {
+        EndpointStats endpointStats = endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        endpointStats.requests.increment();
+        endpointStats.statements.add(stats.statements());
+        endpointStats.rows.add(stats.rows());
+        endpointStats.elapsedMillis.add(stats.elapsedMillis());
+        endpointStats.maxStatements.accumulateAndGet(stats.statements(), Math::max);
+
+        if (stats.statements() > nPlusOneThreshold) {
+            endpointStats.flaggedRequests.increment();
+            long now = System.currentTimeMillis();
+            long last = endpointStats.lastWarnMillis.get();
+            if (now - last >= WARN_INTERVAL_MILLIS && endpointStats.lastWarnMillis.compareAndSet(last, now)) {
+                log.warn("疑似 N+1 查询 - endpoint: {}, statements: {}, rows: {}, elapsed: {}ms（阈值 {}）",
+                        endpoint, stats.statements(), stats.rows(), stats.elapsedMillis(), nPlusOneThreshold);
+            }
+        }
+    }
+
+    void recordSlowStatement(String sql, String parameterTypes, long elapsedMillis) {
+        synchronized (slowStatements) {
+            if (slowStatements.size() >= MAX_SLOW_STATEMENTS) {
+                slowStatements.removeFirst();
+            }
+            slowStatements.addLast(new SlowStatement(Instant.now(), elapsedMillis, sql, parameterTypes));
+        }
+    }
+
+    public Map<String, EndpointSummary> endpointSummaries() {
+        Map<String, EndpointSummary> result = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> result.put(endpoint, stats.summary()));
+        return result;
+    }
+
+    public List<SlowStatement> slowStatements() {
+        synchronized (slowStatements) {
+            List<SlowStatement> copy = new ArrayList<>(slowStatements);
+            Collections.reverse(copy);
+            return copy;
+        }
+    }
+
+    public int nPlusOneThreshold() {
+        return nPlusOneThreshold;
+    }
+
+    public void reset() {
+        endpoints.clear();
+        synchronized (slowStatements) {
+            slowStatements.clear();
+        }
+    }
+
+    // ==================== 内部类 ====================
+
+    private static final class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder elapsedMillis = new LongAdder();
+        private final LongAdder flaggedRequests = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final AtomicLong lastWarnMillis = new AtomicLong();
+
+        EndpointSummary summary() {
+            long requestCount = requests.sum();
+            long statementCount = statements.sum();
+            return new EndpointSummary(requestCount, statementCount,
+                    requestCount > 0 ? (double) statementCount / requestCount : 0,
+                    maxStatements.get(), rows.sum(), elapsedMillis.sum(), flaggedRequests.sum());
+        }
+    }
+
+    public record EndpointSummary(long requests, long statements, double avgStatementsPerRequest,
+                                  long maxStatementsPerRequest, long rowsFetched, long queryTimeMs,
+                                  long suspectedNPlusOne) {
+    }
+
+    public record SlowStatement(Instant at, long elapsedMs, String sql, String parameterTypes) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.zjsu.nsq.commons.jdbc;
+
+/**
+ * 单个 HTTP 请求内的 SQL 统计（只在请求线程上读写，不需要同步）
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long rows;
+    private long elapsedMillis;
+
+    public static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static RequestQueryStats end() {
+        RequestQueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void onStatement(int count, long elapsedMillis) {
+        this.statements += count;
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    void onRow() {
+        rows++;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long elapsedMillis() {
+        return elapsedMillis;
+    }
+}
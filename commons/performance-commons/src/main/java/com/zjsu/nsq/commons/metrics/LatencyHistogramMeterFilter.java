@@ -0,0 +1,47 @@
+package com.zjsu.nsq.commons.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 给框架自带的耗时指标打开百分位直方图（Prometheus 端用 histogram_quantile 聚合多实例）
+ * 默认覆盖：
+ * - http.server.requests：每个 Controller 端点（MVC 和 WebFlux）
+ * - http.client.requests：Feign 调用
+ * - spring.data.repository.invocations：每个 *Repository 方法
+ * - spring.cloud.gateway.requests：网关路由
+ */
+public class LatencyHistogramMeterFilter implements MeterFilter {
+
+    private final List<String> prefixes;
+
+    public LatencyHistogramMeterFilter(List<String> prefixes) {
+        this.prefixes = List.copyOf(prefixes);
+    }
+
+    @Override
+    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (id.getType() != Meter.Type.TIMER || !matches(id.getName())) {
+            return config;
+        }
+        // 指标自身（或 management.metrics.distribution.*）显式配置的值优先
+        return config.merge(DistributionStatisticConfig.builder()
+                .percentilesHistogram(true)
+                .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                .build());
+    }
+
+    private boolean matches(String name) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
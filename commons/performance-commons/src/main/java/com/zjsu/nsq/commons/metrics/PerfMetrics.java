@@ -0,0 +1,52 @@
+package com.zjsu.nsq.commons.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各服务共用的指标入口
+ * Timer / Counter 按名称+标签缓存，热路径上不再每次都走 builder(...).register(...)。
+ */
+public class PerfMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public PerfMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * 取得（必要时注册）一个带百分位直方图的 Timer
+     */
+    public Timer timer(String name, Tags tags) {
+        return timers.computeIfAbsent(new MeterKey(name, tags), key -> Timer.builder(key.name())
+                .tags(key.tags())
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry));
+    }
+
+    /**
+     * 取得（必要时注册）一个 Counter
+     */
+    public Counter counter(String name, Tags tags) {
+        return counters.computeIfAbsent(new MeterKey(name, tags), key -> Counter.builder(key.name())
+                .tags(key.tags())
+                .register(registry));
+    }
+
+    private record MeterKey(String name, Tags tags) {
+    }
+}
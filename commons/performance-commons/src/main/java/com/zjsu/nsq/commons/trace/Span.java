@@ -0,0 +1,10 @@
+package com.zjsu.nsq.commons.trace;
+
+/**
+ * 一个已结束的 span
+ *
+ * @param outcome ok / error / 或 HTTP 状态码类别（如 5xx）
+ */
+public record Span(String traceId, String spanId, String parentSpanId, String requestId,
+                   String service, String name, long startEpochMillis, long durationMicros, String outcome) {
+}
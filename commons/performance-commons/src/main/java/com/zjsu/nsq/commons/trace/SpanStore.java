@@ -0,0 +1,48 @@
+package com.zjsu.nsq.commons.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 最近结束的 span 的环形缓冲区（有界，写满后覆盖最旧的）
+ * 写入只有一次 getAndIncrement + 一次数组写，不加锁；读取只在 traces 端点上发生。
+ */
+public class SpanStore {
+
+    private final AtomicReferenceArray<Span> ring;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    public SpanStore(int capacity) {
+        // 容量向上取整到 2 的幂，用位运算取下标
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void add(Span span) {
+        ring.set((int) (next.getAndIncrement() & mask), span);
+    }
+
+    /**
+     * 当前缓冲区中的全部 span（从旧到新）
+     */
+    public List<Span> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - ring.length());
+        List<Span> spans = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            Span span = ring.get((int) (i & mask));
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    public int capacity() {
+        return ring.length();
+    }
+}
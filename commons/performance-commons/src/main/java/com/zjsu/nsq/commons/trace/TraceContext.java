@@ -0,0 +1,72 @@
+package com.zjsu.nsq.commons.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 一次调用链上的位置：traceId + 当前 spanId，兼容 W3C traceparent（00-{traceId}-{spanId}-{flags}）
+ * requestId 沿用网关生成的 X-Request-Id，便于和访问日志对照
+ */
+public record TraceContext(String traceId, String spanId, String parentSpanId, String requestId) {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final String VERSION = "00";
+    private static final String FLAGS_SAMPLED = "01";
+
+    /**
+     * 从上游传来的 traceparent 继续调用链；缺失或格式不对时开启新的调用链
+     */
+    public static TraceContext continueFrom(String traceparent, String requestId) {
+        String traceId = null;
+        String parentSpanId = null;
+        if (traceparent != null && traceparent.length() == 55
+                && traceparent.charAt(2) == '-' && traceparent.charAt(35) == '-' && traceparent.charAt(52) == '-') {
+            String candidateTrace = traceparent.substring(3, 35);
+            String candidateSpan = traceparent.substring(36, 52);
+            if (isHex(candidateTrace) && isHex(candidateSpan)) {
+                traceId = candidateTrace;
+                parentSpanId = candidateSpan;
+            }
+        }
+        if (traceId == null) {
+            traceId = randomHex(32);
+        }
+        return new TraceContext(traceId, randomHex(16), parentSpanId,
+                requestId != null && !requestId.isEmpty() ? requestId : traceId);
+    }
+
+    /**
+     * 当前 span 下的子 span（如一次 Feign 调用）
+     */
+    public TraceContext child() {
+        return new TraceContext(traceId, randomHex(16), spanId, requestId);
+    }
+
+    public String traceparent() {
+        return VERSION + '-' + traceId + '-' + spanId + '-' + FLAGS_SAMPLED;
+    }
+
+    private static boolean isHex(String value) {
+        boolean nonZero = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+            nonZero |= c != '0';
+        }
+        // 全 0 的 id 在 W3C 规范里是无效的
+        return nonZero;
+    }
+
+    private static String randomHex(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(length);
+        while (hex.length() < length) {
+            String chunk = Long.toHexString(random.nextLong() | Long.MIN_VALUE);
+            hex.append(chunk, 0, Math.min(chunk.length(), length - hex.length()));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.zjsu.nsq.commons.trace;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的 TraceContext，同时同步到 MDC（traceId / spanId / requestId），日志里可以直接输出
+ * 切换线程（线程池、对冲调用）时用 wrap 把上下文带过去
+ */
+public final class TraceContextHolder {
+
+    public static final String MDC_TRACE_ID = "traceId";
+    public static final String MDC_SPAN_ID = "spanId";
+    public static final String MDC_REQUEST_ID = "requestId";
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private TraceContextHolder() {
+    }
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设置当前上下文，返回之前的上下文（用于 restore）
+     */
+    public static TraceContext attach(TraceContext context) {
+        TraceContext previous = CURRENT.get();
+        set(context);
+        return previous;
+    }
+
+    public static void restore(TraceContext previous) {
+        set(previous);
+    }
+
+    private static void set(TraceContext context) {
+        if (context == null) {
+            CURRENT.remove();
+            MDC.remove(MDC_TRACE_ID);
+            MDC.remove(MDC_SPAN_ID);
+            MDC.remove(MDC_REQUEST_ID);
+            return;
+        }
+        CURRENT.set(context);
+        MDC.put(MDC_TRACE_ID, context.traceId());
+        MDC.put(MDC_SPAN_ID, context.spanId());
+        MDC.put(MDC_REQUEST_ID, context.requestId());
+    }
+
+    /**
+     * 把调用线程的上下文（含其余 MDC 内容）带到执行 supplier 的线程上
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        TraceContext captured = CURRENT.get();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        if (captured == null && mdc == null) {
+            return supplier;
+        }
+        return () -> {
+            TraceContext previous = CURRENT.get();
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            try {
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                set(captured);
+                return supplier.get();
+            } finally {
+                if (previousMdc != null) {
+                    MDC.setContextMap(previousMdc);
+                } else {
+                    MDC.clear();
+                }
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    public static Runnable wrap(Runnable runnable) {
+        Supplier<Void> wrapped = wrap(() -> {
+            runnable.run();
+            return null;
+        });
+        return wrapped::get;
+    }
+}
@@ -0,0 +1,73 @@
+package com.zjsu.nsq.commons.trace;
+
+import java.util.function.Supplier;
+
+/**
+ * 轻量级 tracing：只在本进程内记录 span 到 SpanStore，不依赖外部 tracing 后端
+ * - 服务端 span：由 TracingFilter（servlet）或网关的 TracePropagationFilter 开启
+ * - 子 span：inSpan(...) 包住一次下游调用，期间 TraceContextHolder 指向子 span，Feign 拦截器据此传播 traceparent
+ */
+public class Tracer {
+
+    private final SpanStore store;
+    private final String serviceName;
+
+    public Tracer(SpanStore store, String serviceName) {
+        this.store = store;
+        this.serviceName = serviceName;
+    }
+
+    /**
+     * 开启一个服务端 span（继续上游的调用链，没有时新建）
+     */
+    public ActiveSpan startServerSpan(String traceparent, String requestId, String name) {
+        return new ActiveSpan(TraceContext.continueFrom(traceparent, requestId), name);
+    }
+
+    /**
+     * 在当前 span 下开启子 span 执行 work
+     */
+    public <T> T inSpan(String name, Supplier<T> work) {
+        TraceContext parent = TraceContextHolder.current();
+        ActiveSpan span = new ActiveSpan(parent != null ? parent.child() : TraceContext.continueFrom(null, null), name);
+        TraceContext previous = TraceContextHolder.attach(span.context());
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "ok";
+            return result;
+        } finally {
+            TraceContextHolder.restore(previous);
+            span.end(outcome);
+        }
+    }
+
+    public SpanStore store() {
+        return store;
+    }
+
+    /**
+     * 进行中的 span，end 时写入 SpanStore
+     */
+    public final class ActiveSpan {
+        private final TraceContext context;
+        private final String name;
+        private final long startEpochMillis = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+
+        private ActiveSpan(TraceContext context, String name) {
+            this.context = context;
+            this.name = name;
+        }
+
+        public TraceContext context() {
+            return context;
+        }
+
+        public void end(String outcome) {
+            long durationMicros = (System.nanoTime() - startNanos) / 1_000;
+            store.add(new Span(context.traceId(), context.spanId(), context.parentSpanId(), context.requestId(),
+                    serviceName, name, startEpochMillis, durationMicros, outcome));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.zjsu.nsq.commons.trace;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/traces：导出本实例最近的慢调用链（按 trace 分组，最慢的在前）
+ * 参数：minDurationMs（默认 nsq.tracing.slow-threshold-ms）、limit（默认 20）
+ * 跨服务的完整调用链需要把各服务同一 traceId 的结果拼起来（traceId 与网关访问日志一致）
+ */
+@Endpoint(id = "traces")
+public class TracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SpanStore store;
+    private final long slowThresholdMs;
+
+    public TracesEndpoint(SpanStore store, long slowThresholdMs) {
+        this.store = store;
+        this.slowThresholdMs = slowThresholdMs;
+    }
+
+    @ReadOperation
+    public TracesReport traces(@Nullable Long minDurationMs, @Nullable Integer limit) {
+        long thresholdMicros = (minDurationMs != null ? minDurationMs : slowThresholdMs) * 1_000;
+        int max = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+
+        List<Span> spans = store.snapshot();
+        Map<String, List<Span>> byTrace = new LinkedHashMap<>();
+        for (Span span : spans) {
+            byTrace.computeIfAbsent(span.traceId(), key -> new ArrayList<>()).add(span);
+        }
+
+        List<TraceView> slow = new ArrayList<>();
+        for (Map.Entry<String, List<Span>> entry : byTrace.entrySet()) {
+            List<Span> traceSpans = entry.getValue();
+            long longest = traceSpans.stream().mapToLong(Span::durationMicros).max().orElse(0);
+            if (longest >= thresholdMicros) {
+                traceSpans.sort(Comparator.comparingLong(Span::startEpochMillis));
+                slow.add(new TraceView(entry.getKey(), traceSpans.get(0).requestId(), longest / 1_000, traceSpans));
+            }
+        }
+        slow.sort(Comparator.comparingLong(TraceView::durationMs).reversed());
+        return new TracesReport(spans.size(), store.capacity(),
+                slow.size() > max ? slow.subList(0, max) : slow);
+    }
+
+    public record TracesReport(int bufferedSpans, int capacity, List<TraceView> traces) {
+    }
+
+    public record TraceView(String traceId, String requestId, long durationMs, List<Span> spans) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.zjsu.nsq.commons.trace;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet 服务的入口 span：读取上游的 traceparent / X-Request-Id，请求期间写入 MDC，结束时记录到 SpanStore
+ * 异步处理的请求（DeferredResult / Callable）在 AsyncListener.onComplete 时才结束 span，
+ * 耗时和状态码都以最终写出的响应为准
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Tracer.ActiveSpan span = tracer.startServerSpan(
+                request.getHeader(TraceContext.TRACEPARENT_HEADER),
+                request.getHeader(TraceContext.REQUEST_ID_HEADER),
+                request.getMethod() + " " + request.getRequestURI());
+        TraceContext previous = TraceContextHolder.attach(span.context());
+        response.setHeader(TraceContext.REQUEST_ID_HEADER, span.context().requestId());
+        String outcome = "error";
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncSpanCompletion(span, response));
+                async = true;
+            } else {
+                outcome = response.getStatus() / 100 + "xx";
+            }
+        } finally {
+            TraceContextHolder.restore(previous);
+            if (!async) {
+                span.end(outcome);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // actuator（含 traces 端点本身、Prometheus 抓取）不记录
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    /**
+     * 异步请求完成（含超时、出错后的完成）时结束 span
+     */
+    private static final class AsyncSpanCompletion implements AsyncListener {
+        private final Tracer.ActiveSpan span;
+        private final HttpServletResponse response;
+        private volatile boolean failed;
+
+        AsyncSpanCompletion(Tracer.ActiveSpan span, HttpServletResponse response) {
+            this.span = span;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            span.end(failed ? "error" : response.getStatus() / 100 + "xx");
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // 超时后由 Spring MVC 写出 503，onComplete 按状态码记录
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 重新开始异步处理时容器会清空监听器，需要重新注册
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.zjsu.nsq.commons.vthread;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 虚拟线程固定（pinning）诊断
+ * 虚拟线程在 synchronized 块或本地方法里阻塞时无法从载体线程卸载，会占住一个载体线程。
+ * 用 JFR 事件流订阅 jdk.VirtualThreadPinned（超过阈值才触发），按发生位置（第一个非 JDK 栈帧）：
+ * - 记录 jvm.threads.virtual.pinned 计时器（site 标签）
+ * - 每个位置第一次出现时在 nsq.vthread.pinned logger 输出一条 WARN，附带栈顶几帧
+ * 只在开启虚拟线程（spring.threads.virtual.enabled=true，Java 21+）时注册。
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger("nsq.vthread.pinned");
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    // site 标签的上限，超过后归入 other，避免指标基数失控
+    private static final int MAX_SITES = 200;
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        stream = recording;
+        log.info("虚拟线程固定诊断已开启，阈值 {}ms", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String site = site(frames);
+        boolean first = false;
+        if (!sites.contains(site)) {
+            if (sites.size() < MAX_SITES) {
+                first = sites.add(site);
+            } else {
+                site = "other";
+            }
+        }
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("虚拟线程被固定在载体线程上的时长（超过阈值的事件）")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        if (first && log.isWarnEnabled()) {
+            log.warn("虚拟线程被固定 {}ms，位置: {}{}", event.getDuration().toMillis(), site, describe(frames));
+        }
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace != null ? stackTrace.getFrames() : List.of();
+    }
+
+    /**
+     * 第一个不属于 JDK 的栈帧：通常就是持有监视器并阻塞的应用代码
+     */
+    private static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "unknown";
+    }
+
+    private static String describe(List<RecordedFrame> frames) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            text.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.zjsu.nsq.commons.web;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 统一接口响应格式：所有服务的接口都返回该对象
+ * 结构：code（状态码）+ message（提示）+ data（业务数据）+ instance（处理请求的实例，为空时不输出）
+ */
+public record ApiResponse<T>(int code,
+                             String message,
+                             T data,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) String instance) {
+
+    // 静态工厂：成功响应（带业务数据）
+    public static <T> ApiResponse<T> success(T data) {
+        return new ApiResponse<>(200, "操作成功", data, null);
+    }
+
+    // 静态工厂：成功响应（无业务数据，如删除、更新成功）
+    public static <T> ApiResponse<T> success() {
+        return new ApiResponse<>(200, "操作成功", null, null);
+    }
+
+    // 静态工厂：自定义状态码、提示和数据
+    public static <T> ApiResponse<T> of(int code, String message, T data) {
+        return new ApiResponse<>(code, message, data, null);
+    }
+
+    // 静态工厂：错误响应（自定义状态码和提示，如404、409）
+    public static <T> ApiResponse<T> error(int code, String message) {
+        return new ApiResponse<>(code, message, null, null);
+    }
+
+    // 静态工厂：默认错误响应（500系统错误）
+    public static <T> ApiResponse<T> error(String message) {
+        return new ApiResponse<>(500, message, null, null);
+    }
+
+    // 附带处理请求的实例信息（负载均衡验证用）
+    public ApiResponse<T> withInstance(String instance) {
+        return new ApiResponse<>(code, message, data, instance);
+    }
+}
@@ -0,0 +1,24 @@
+package com.zjsu.nsq.commons.web;
+
+import org.springframework.http.MediaType;
+
+/**
+ * 服务间调用使用的内容类型
+ * Smile 是 Jackson 的二进制 JSON：同样的数据模型，体积更小、编解码更快。
+ * 引入 jackson-dataformat-smile 后 Spring MVC 自动注册对应的消息转换器，
+ * 服务端按 Accept 头协商；对外接口仍然返回 JSON。
+ */
+public final class InternalMediaTypes {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+
+    /**
+     * 服务间调用方的 Accept 头（Feign 的 headers 属性）：优先 Smile，对方不支持时退回 JSON
+     */
+    public static final String INTERNAL_ACCEPT = "Accept=" + SMILE_VALUE + ", application/json;q=0.9";
+
+    private InternalMediaTypes() {
+    }
+}
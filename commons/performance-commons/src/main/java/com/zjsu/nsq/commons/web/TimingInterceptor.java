@@ -0,0 +1,74 @@
+package com.zjsu.nsq.commons.web;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller 方法计时：记录到 nsq.handler.duration{handler, outcome}
+ * 每个方法的 Timer 按状态码类别（1xx~5xx）缓存在数组里，首次出现时才注册，之后只做一次数组下标访问。
+ * 异步处理（Mono、DeferredResult 等）的首次分发在 Controller 方法返回后只走 afterConcurrentHandlingStarted；
+ * ASYNC 再分发不重置开始时间，在它的 afterCompletion 里按最终状态码记录整个请求的耗时
+ */
+public class TimingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String METRIC_NAME = "nsq.handler.duration";
+
+    private static final String START_ATTRIBUTE = TimingInterceptor.class.getName() + ".start";
+    private static final String[] OUTCOMES = {"UNKNOWN", "INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"};
+
+    private final PerfMetrics metrics;
+    private final Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+    private final Map<Method, String> handlerNames = new ConcurrentHashMap<>();
+
+    public TimingInterceptor(PerfMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        request.removeAttribute(START_ATTRIBUTE);
+        int series = response.getStatus() / 100;
+        if (ex != null && series < 4) {
+            series = 5;
+        }
+        int outcome = series >= 1 && series <= 5 ? series : 0;
+        Method method = handlerMethod.getMethod();
+        Timer[] byOutcome = timers.computeIfAbsent(method, key -> new Timer[OUTCOMES.length]);
+        Timer timer = byOutcome[outcome];
+        if (timer == null) {
+            // 并发时可能重复赋值，PerfMetrics 内部按名称+标签缓存，拿到的是同一个 Timer
+            timer = metrics.timer(METRIC_NAME, Tags.of("handler", handlerName(method), "outcome", OUTCOMES[outcome]));
+            byOutcome[outcome] = timer;
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private String handlerName(Method method) {
+        return handlerNames.computeIfAbsent(method,
+                key -> key.getDeclaringClass().getSimpleName() + "#" + key.getName());
+    }
+}
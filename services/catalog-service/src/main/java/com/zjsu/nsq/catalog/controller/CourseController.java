@@ -1,16 +1,20 @@
 package com.zjsu.nsq.catalog.controller;
 
+import com.zjsu.nsq.commons.instance.InstanceIdentity;
+import com.zjsu.nsq.commons.instance.LoadBalancedRequestLogger;
+import com.zjsu.nsq.commons.web.ApiResponse;
+import com.zjsu.nsq.commons.web.InternalMediaTypes;
+import com.zjsu.nsq.catalog.dto.CapacityView;
+import com.zjsu.nsq.catalog.dto.CourseSummary;
+import com.zjsu.nsq.catalog.dto.CourseView;
 import com.zjsu.nsq.catalog.model.Course;
 import com.zjsu.nsq.catalog.service.CourseService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.env.Environment;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.InetAddress;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -23,58 +27,32 @@ public class CourseController {
     private static final Logger logger = LoggerFactory.getLogger(CourseController.class);
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    @Value("${server.port}")
-    private String serverPort;
-
     private final CourseService service;
+    private final InstanceIdentity instanceIdentity;
+    private final LoadBalancedRequestLogger requestLogger;
 
     @Autowired
-    private Environment environment;
-
-    @Autowired
-    public CourseController(CourseService service) {
+    public CourseController(CourseService service,
+                            InstanceIdentity instanceIdentity,
+                            LoadBalancedRequestLogger requestLogger) {
         this.service = service;
+        this.instanceIdentity = instanceIdentity;
+        this.requestLogger = requestLogger;
     }
 
     // ==================== 辅助方法 ====================
 
     /**
-     * 获取实例信息字符串
-     */
-    private String getInstanceInfo() {
-        try {
-            return String.format("IP: %s, Port: %s",
-                    InetAddress.getLocalHost().getHostAddress(),
-                    serverPort);
-        } catch (Exception e) {
-            return "Port: " + serverPort;
-        }
-    }
-
-    /**
-     * 记录负载均衡请求日志
+     * 创建带附加信息的统一响应（负载均衡、健康检查等诊断接口使用）
      */
-    private void logLoadBalancedRequest(String methodName, String param) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        String instanceInfo = getInstanceInfo();
-
-        logger.info("【负载均衡】catalog-service 实例: {} 处理了 {}({}) 请求，时间: {}",
-                instanceInfo, methodName, param, timestamp);
+    private ApiResponse<Map<String, Object>> createResponse(int code, String msg, Map<String, Object> data) {
+        return ApiResponse.of(code, msg, data);
     }
 
-    /**
-     * 创建统一响应格式
-     */
-    private Map<String, Object> createResponse(int code, String msg, Object data) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("code", code);
-        response.put("message", msg);
-        response.put("data", data);
-        return response;
+    private static <T> ResponseEntity<ApiResponse<T>> error(int status, String message) {
+        return ResponseEntity.status(status).body(ApiResponse.error(status, message));
     }
 
-
-
     // ==================== 核心业务接口 ====================
 
     /**
@@ -82,233 +60,124 @@ public class CourseController {
      * 作业要求接口：GET /api/courses/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getCourseById(@PathVariable Long id) {
-        logLoadBalancedRequest("getCourseById", String.valueOf(id));
+    public ResponseEntity<ApiResponse<CourseView>> getCourseById(@PathVariable Long id) {
+        requestLogger.log("getCourseById", String.valueOf(id));
 
         try {
             Course course = service.findById(id)
                     .orElseThrow(() -> new RuntimeException("课程不存在"));
 
-            // 构建返回给 enrollment-service 的 CourseDto 格式
-            Map<String, Object> courseData = new HashMap<>();
-            courseData.put("id", course.getId());
-            courseData.put("code", course.getCode());
-            courseData.put("title", course.getTitle());
-            courseData.put("capacity", course.getCapacity());
-            courseData.put("enrolled", course.getEnrolled());
-            courseData.put("createdAt", course.getCreatedAt());
-
-            // 如果有 instructor 信息
-            if (course.getInstructor() != null) {
-                courseData.put("instructorName", course.getInstructor().getName());
-                courseData.put("instructorEmail", course.getInstructor().getEmail());
-            }
-
-            // 如果有 schedule 信息
-            if (course.getSchedule() != null) {
-                courseData.put("scheduleDay", course.getSchedule().getDayOfWeek());
-                courseData.put("scheduleStartTime", course.getSchedule().getStartTime());
-                courseData.put("scheduleEndTime", course.getSchedule().getEndTime());
-            }
-
-            logger.info("✅ 返回课程信息 - id: {}, code: {}, title: {}",
+            logger.debug("✅ 返回课程信息 - id: {}, code: {}, title: {}",
                     id, course.getCode(), course.getTitle());
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "Success");
-            response.put("data", courseData);
-            response.put("instance", getInstanceInfo());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "Success", CourseView.from(course))
+                    .withInstance(instanceIdentity.describe()));
         } catch (RuntimeException e) {
             logger.error("❌ 课程不存在 - id: {}", id);
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 404);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(404).body(response);
+            return error(404, e.getMessage());
         } catch (Exception e) {
             logger.error("❌ 获取课程信息失败 - id: {}", id, e);
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
+    /**
+     * 获取课程信息的服务间版本：Accept: application/x-jackson-smile 时命中
+     * 返回 Smile 编码的精简视图，不附带实例信息；其他 Accept 仍由上面的 JSON 接口处理
+     */
+    @GetMapping(value = "/{id}", produces = InternalMediaTypes.SMILE_VALUE)
+    public ResponseEntity<ApiResponse<CourseSummary>> getCourseSummary(@PathVariable Long id) {
+        requestLogger.log("getCourseSummary", String.valueOf(id));
+
+        return service.findById(id)
+                .map(course -> ResponseEntity.ok(ApiResponse.of(200, "Success", CourseSummary.from(course))))
+                .orElseGet(() -> error(404, "课程不存在"));
+    }
+
     /**
      * 根据课程代码获取课程信息
      */
     @GetMapping("/by-code/{code}")
-    public ResponseEntity<Map<String, Object>> getCourseByCode(@PathVariable String code) {
-        logLoadBalancedRequest("getCourseByCode", code);
+    public ResponseEntity<ApiResponse<CourseView>> getCourseByCode(@PathVariable String code) {
+        requestLogger.log("getCourseByCode", code);
 
         try {
             Course course = service.findByCode(code)
                     .orElseThrow(() -> new RuntimeException("课程不存在: " + code));
 
-            Map<String, Object> courseData = new HashMap<>();
-            courseData.put("id", course.getId());
-            courseData.put("code", course.getCode());
-            courseData.put("title", course.getTitle());
-            courseData.put("capacity", course.getCapacity());
-            courseData.put("enrolled", course.getEnrolled());
-            courseData.put("createdAt", course.getCreatedAt());
-
-            if (course.getInstructor() != null) {
-                courseData.put("instructorName", course.getInstructor().getName());
-                courseData.put("instructorEmail", course.getInstructor().getEmail());
-            }
-
-            if (course.getSchedule() != null) {
-                courseData.put("scheduleDay", course.getSchedule().getDayOfWeek());
-                courseData.put("scheduleStartTime", course.getSchedule().getStartTime());
-                courseData.put("scheduleEndTime", course.getSchedule().getEndTime());
-            }
-
-            logger.info("✅ 返回课程信息 - code: {}, title: {}", code, course.getTitle());
+            logger.debug("✅ 返回课程信息 - code: {}, title: {}", code, course.getTitle());
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "Success");
-            response.put("data", courseData);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "Success", CourseView.from(course)));
         } catch (RuntimeException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 404);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(404).body(response);
+            return error(404, e.getMessage());
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
     // ==================== CRUD 操作 ====================
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> list() {
-        logLoadBalancedRequest("list", "all");
+    public ResponseEntity<ApiResponse<List<Course>>> list() {
+        requestLogger.log("list", "all");
 
         try {
             List<Course> courses = service.findAll();
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "Success");
-            response.put("data", courses);
-            response.put("instance", getInstanceInfo());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "Success", courses).withInstance(instanceIdentity.describe()));
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> create(@RequestBody Course course) {
-        logLoadBalancedRequest("create", course.getCode() != null ? course.getCode() : "new");
+    public ResponseEntity<ApiResponse<Course>> create(@RequestBody Course course) {
+        requestLogger.log("create", course.getCode() != null ? course.getCode() : "new");
 
         try {
             if (course.getCode() == null || course.getCode().trim().isEmpty()) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("code", 400);
-                response.put("message", "课程代码不能为空");
-                response.put("data", null);
-                return ResponseEntity.status(400).body(response);
+                return error(400, "课程代码不能为空");
             }
 
             if (course.getTitle() == null || course.getTitle().trim().isEmpty()) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("code", 400);
-                response.put("message", "课程名称不能为空");
-                response.put("data", null);
-                return ResponseEntity.status(400).body(response);
+                return error(400, "课程名称不能为空");
             }
 
             Course createdCourse = service.create(course);
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 201);
-            response.put("message", "课程创建成功");
-            response.put("data", createdCourse);
-            return ResponseEntity.status(201).body(response);
+            return ResponseEntity.status(201).body(ApiResponse.of(201, "课程创建成功", createdCourse));
         } catch (CourseService.CourseAlreadyExistsException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 409);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(409).body(response);
+            return error(409, e.getMessage());
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> update(@PathVariable Long id, @RequestBody Course course) {
-        logLoadBalancedRequest("update", String.valueOf(id));
+    public ResponseEntity<ApiResponse<Course>> update(@PathVariable Long id, @RequestBody Course course) {
+        requestLogger.log("update", String.valueOf(id));
 
         try {
             Course updatedCourse = service.update(id, course);
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "课程更新成功");
-            response.put("data", updatedCourse);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "课程更新成功", updatedCourse));
         } catch (CourseService.CourseNotFoundException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 404);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(404).body(response);
+            return error(404, e.getMessage());
         } catch (CourseService.CourseAlreadyExistsException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 409);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(409).body(response);
+            return error(409, e.getMessage());
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> delete(@PathVariable Long id) {
-        logLoadBalancedRequest("delete", String.valueOf(id));
+    public ResponseEntity<ApiResponse<Void>> delete(@PathVariable Long id) {
+        requestLogger.log("delete", String.valueOf(id));
 
         try {
             service.delete(id);
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "删除成功");
-            response.put("data", null);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "删除成功", null));
         } catch (CourseService.CourseNotFoundException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 404);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(404).body(response);
+            return error(404, e.getMessage());
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
@@ -318,39 +187,22 @@ public class CourseController {
      * 更新课程选课人数接口（供 enrollment-service 调用）
      */
     @PutMapping("/{id}/enrolled")
-    public ResponseEntity<Map<String, Object>> updateEnrolledCount(
+    public ResponseEntity<ApiResponse<Course>> updateEnrolledCount(
             @PathVariable("id") Long courseId,
             @RequestParam("count") Integer newEnrolledCount) {
 
-        logLoadBalancedRequest("updateEnrolledCount", String.format("courseId=%d, count=%d", courseId, newEnrolledCount));
+        requestLogger.log("updateEnrolledCount", String.format("courseId=%d, count=%d", courseId, newEnrolledCount));
 
         try {
             Course updatedCourse = service.updateEnrolledCount(courseId, newEnrolledCount);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "选课人数更新成功");
-            response.put("data", updatedCourse);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "选课人数更新成功", updatedCourse));
 
         } catch (CourseService.CourseNotFoundException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 404);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(404).body(response);
+            return error(404, e.getMessage());
         } catch (CourseService.InvalidCourseDataException e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 400);
-            response.put("message", e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.badRequest().body(response);
+            return error(400, e.getMessage());
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "更新选课人数失败：" + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "更新选课人数失败：" + e.getMessage());
         }
     }
 
@@ -358,24 +210,17 @@ public class CourseController {
      * 减少选课人数接口（原子操作）
      */
     @PostMapping("/{id}/drop")
-    public ResponseEntity<Map<String, Object>> dropCourse(@PathVariable("id") Long courseId) {
-        logLoadBalancedRequest("dropCourse", String.valueOf(courseId));
+    public ResponseEntity<ApiResponse<Course>> dropCourse(@PathVariable("id") Long courseId) {
+        requestLogger.log("dropCourse", String.valueOf(courseId));
 
         try {
             Course updatedCourse = service.decrementEnrolledCount(courseId);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "退课成功，课程人数已减少");
-            response.put("data", updatedCourse);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "退课成功，课程人数已减少", updatedCourse));
 
         } catch (CourseService.CourseNotFoundException e) {
-            return ResponseEntity.status(404)
-                    .body(Map.of("code", 404, "message", e.getMessage(), "data", null));
+            return error(404, e.getMessage());
         } catch (CourseService.InvalidCourseDataException e) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of("code", 400, "message", e.getMessage(), "data", null));
+            return error(400, e.getMessage());
         }
     }
 
@@ -383,98 +228,62 @@ public class CourseController {
      * 检查课程容量接口
      */
     @GetMapping("/{id}/capacity")
-    public ResponseEntity<Map<String, Object>> getCourseCapacity(@PathVariable("id") Long courseId) {
-        logLoadBalancedRequest("getCourseCapacity", String.valueOf(courseId));
+    public ResponseEntity<ApiResponse<CapacityView>> getCourseCapacity(@PathVariable("id") Long courseId) {
+        requestLogger.log("getCourseCapacity", String.valueOf(courseId));
 
         try {
             int availableCapacity = service.getAvailableCapacity(courseId);
             boolean hasCapacity = service.hasAvailableCapacity(courseId);
 
-            Map<String, Object> data = new HashMap<>();
-            data.put("courseId", courseId);
-            data.put("availableCapacity", availableCapacity);
-            data.put("hasCapacity", hasCapacity);
-
-            return ResponseEntity.ok(Map.of(
-                    "code", 200,
-                    "message", "查询成功",
-                    "data", data
-            ));
+            return ResponseEntity.ok(ApiResponse.of(200, "查询成功",
+                    new CapacityView(courseId, availableCapacity, hasCapacity)));
 
         } catch (CourseService.CourseNotFoundException e) {
-            return ResponseEntity.status(404)
-                    .body(Map.of("code", 404, "message", e.getMessage(), "data", null));
+            return error(404, e.getMessage());
         }
     }
 
     // ==================== 查询接口 ====================
 
     @GetMapping("/search/title/{title}")
-    public ResponseEntity<Map<String, Object>> findByTitle(@PathVariable String title) {
-        logLoadBalancedRequest("findByTitle", title);
+    public ResponseEntity<ApiResponse<List<Course>>> findByTitle(@PathVariable String title) {
+        requestLogger.log("findByTitle", title);
 
         try {
-            List<Course> courses = service.findByTitleContaining(title);
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "Success");
-            response.put("data", courses);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "Success", service.findByTitleContaining(title)));
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
     @GetMapping("/search/instructor/{instructorName}")
-    public ResponseEntity<Map<String, Object>> findByInstructor(@PathVariable String instructorName) {
-        logLoadBalancedRequest("findByInstructor", instructorName);
+    public ResponseEntity<ApiResponse<List<Course>>> findByInstructor(@PathVariable String instructorName) {
+        requestLogger.log("findByInstructor", instructorName);
 
         try {
-            List<Course> courses = service.findByInstructorName(instructorName);
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "Success");
-            response.put("data", courses);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "Success", service.findByInstructorName(instructorName)));
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
     @GetMapping("/available")
-    public ResponseEntity<Map<String, Object>> findAvailableCourses() {
-        logLoadBalancedRequest("findAvailableCourses", "");
+    public ResponseEntity<ApiResponse<List<Course>>> findAvailableCourses() {
+        requestLogger.log("findAvailableCourses", "");
 
         try {
-            List<Course> courses = service.findAvailableCourses();
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 200);
-            response.put("message", "Success");
-            response.put("data", courses);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.of(200, "Success", service.findAvailableCourses()));
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("code", 500);
-            response.put("message", "Internal server error: " + e.getMessage());
-            response.put("data", null);
-            return ResponseEntity.status(500).body(response);
+            return error(500, "Internal server error: " + e.getMessage());
         }
     }
 
     // ==================== 负载均衡测试接口 ====================
 
     @GetMapping("/lb-test")
-    public ResponseEntity<Map<String, Object>> loadBalancerTest() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> loadBalancerTest() {
         String timestamp = LocalDateTime.now().format(formatter);
-        String instanceInfo = getInstanceInfo();
+        String instanceInfo = instanceIdentity.describe();
 
         Map<String, Object> response = new HashMap<>();
         response.put("service", "catalog-service");
@@ -490,48 +299,37 @@ public class CourseController {
     }
 
     @GetMapping("/instance-info")
-    public ResponseEntity<Map<String, Object>> getInstanceInfoEndpoint() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getInstanceInfoEndpoint() {
         Map<String, Object> response = new HashMap<>();
         response.put("service", "catalog-service");
-        response.put("instance", getInstanceInfo());
+        response.put("instance", instanceIdentity.describe());
         response.put("timestamp", System.currentTimeMillis());
         return ResponseEntity.ok(createResponse(200, "Success", response));
     }
 
     @GetMapping("/health/lb")
-    public ResponseEntity<Map<String, Object>> loadBalancerHealth() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> loadBalancerHealth() {
         Map<String, Object> health = new HashMap<>();
         health.put("status", "UP");
         health.put("service", "catalog-service");
-        health.put("instance", getInstanceInfo());
+        health.put("instance", instanceIdentity.describe());
         health.put("timestamp", System.currentTimeMillis());
         health.put("message", "Ready for load balancing");
         return ResponseEntity.ok(createResponse(200, "Service is running", health));
     }
 
     @GetMapping("/port")
-    public ResponseEntity<Map<String, Object>> getPort() {
-        logLoadBalancedRequest("getPort", "");
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPort() {
+        requestLogger.log("getPort", "");
 
         Map<String, Object> response = new HashMap<>();
         response.put("service", "catalog-service");
 
-        try {
-            // 获取端口
-            String port = environment.getProperty("local.server.port");
-            response.put("port", port);
-
-            // 获取IP地址
-            String ip = InetAddress.getLocalHost().getHostAddress();
-            response.put("ip", ip);
-
-            response.put("timestamp", System.currentTimeMillis());
-        } catch (Exception e) {
-            response.put("error", e.getMessage());
-            response.put("port", "unknown");
-            response.put("ip", "unknown");
-            response.put("timestamp", System.currentTimeMillis());
-        }
+        // 端口和IP取自启动时缓存的实例信息，不再每次请求都解析本机地址
+        String ip = instanceIdentity.hostAddress();
+        response.put("port", instanceIdentity.port());
+        response.put("ip", ip != null ? ip : "unknown");
+        response.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(createResponse(200, "Success", response));
     }
@@ -539,11 +337,11 @@ public class CourseController {
     // ==================== 健康检查 ====================
 
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> healthCheck() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> healthCheck() {
         Map<String, Object> health = new HashMap<>();
         health.put("status", "UP");
         health.put("service", "catalog-service");
-        health.put("instance", getInstanceInfo());
+        health.put("instance", instanceIdentity.describe());
         health.put("timestamp", System.currentTimeMillis());
         health.put("message", "Catalog Service is healthy");
         return ResponseEntity.ok(createResponse(200, "Service is running", health));
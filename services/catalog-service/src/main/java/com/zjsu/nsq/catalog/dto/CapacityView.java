@@ -0,0 +1,7 @@
+package com.zjsu.nsq.catalog.dto;
+
+/**
+ * 课程容量查询结果
+ */
+public record CapacityView(Long courseId, int availableCapacity, boolean hasCapacity) {
+}
@@ -0,0 +1,23 @@
+package com.zjsu.nsq.catalog.dto;
+
+import com.zjsu.nsq.catalog.model.Course;
+
+/**
+ * 服务间调用的精简课程视图（Smile 编码）
+ * 只包含 enrollment-service 选课时需要的字段：不含描述、教师、时间安排和创建时间
+ */
+public record CourseSummary(Long id,
+                            String code,
+                            String title,
+                            Integer capacity,
+                            Integer enrolled) {
+
+    public static CourseSummary from(Course course) {
+        return new CourseSummary(
+                course.getId(),
+                course.getCode(),
+                course.getTitle(),
+                course.getCapacity(),
+                course.getEnrolled());
+    }
+}
@@ -0,0 +1,40 @@
+package com.zjsu.nsq.catalog.dto;
+
+import com.zjsu.nsq.catalog.model.Course;
+import com.zjsu.nsq.catalog.model.Instructor;
+import com.zjsu.nsq.catalog.model.ScheduleSlot;
+
+import java.time.LocalDateTime;
+
+/**
+ * 单个课程的扁平视图（enrollment-service 的 CourseDto.Data 按这个结构解析）
+ */
+public record CourseView(Long id,
+                         String code,
+                         String title,
+                         Integer capacity,
+                         Integer enrolled,
+                         LocalDateTime createdAt,
+                         String instructorName,
+                         String instructorEmail,
+                         String scheduleDay,
+                         String scheduleStartTime,
+                         String scheduleEndTime) {
+
+    public static CourseView from(Course course) {
+        Instructor instructor = course.getInstructor();
+        ScheduleSlot schedule = course.getSchedule();
+        return new CourseView(
+                course.getId(),
+                course.getCode(),
+                course.getTitle(),
+                course.getCapacity(),
+                course.getEnrolled(),
+                course.getCreatedAt(),
+                instructor != null ? instructor.getName() : null,
+                instructor != null ? instructor.getEmail() : null,
+                schedule != null ? schedule.getDayOfWeek() : null,
+                schedule != null ? schedule.getStartTime() : null,
+                schedule != null ? schedule.getEndTime() : null);
+    }
+}
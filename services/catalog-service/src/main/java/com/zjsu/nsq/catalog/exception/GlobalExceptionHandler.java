@@ -1,6 +1,6 @@
 package com.zjsu.nsq.catalog.exception;
 
-import com.zjsu.nsq.catalog.common.ApiResponse;
+import com.zjsu.nsq.commons.web.ApiResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,12 +12,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice // 标识为全局异常处理，作用于所有 @RestController
 public class GlobalExceptionHandler {
 
-    // 🌟 捕获：课程不存在异常（ResourceNotFoundException）
-    @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<ApiResponse<Void>> handleResourceNotFound(ResourceNotFoundException e) {
-        ApiResponse<Void> response = ApiResponse.error(HttpStatus.NOT_FOUND.value(), e.getMessage());
-        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
-    }
+    // 课程不存在异常（ResourceNotFoundException）由公共模块的 CommonExceptionHandler 统一处理
 
     // 捕获：参数错误异常（如传入null、格式错误，比如课程容量为负数）
     @ExceptionHandler(IllegalArgumentException.class)
@@ -1,5 +1,6 @@
 package com.zjsu.nsq.enrollment.client;
 
+import com.zjsu.nsq.commons.web.InternalMediaTypes;
 import com.zjsu.nsq.enrollment.dto.CourseDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
@@ -8,9 +9,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "catalog-service", fallback = CatalogClientFallback.class)
+@FeignClient(name = "catalog-service", fallbackFactory = CatalogClientFallbackFactory.class)
 public interface CatalogClient {
-    @GetMapping("/api/courses/{id}")
+    // 优先要 Smile 编码的精简视图；下游还没升级时按 q 值退回 JSON
+    @GetMapping(value = "/api/courses/{id}", headers = InternalMediaTypes.INTERNAL_ACCEPT)
     CourseDto getCourse(@PathVariable Long id);
 
     @PutMapping("/api/courses/{id}/enrolled")
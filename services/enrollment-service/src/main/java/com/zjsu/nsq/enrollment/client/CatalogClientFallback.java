@@ -1,45 +1,64 @@
 package com.zjsu.nsq.enrollment.client;
 
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
 import com.zjsu.nsq.enrollment.dto.CourseDto;
-import org.slf4j.Logger;
+import com.zjsu.nsq.enrollment.util.RateLimitedLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tags;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class CatalogClientFallback implements CatalogClient {
 
-    private static final Logger log = LoggerFactory.getLogger(CatalogClientFallback.class);
+    // 熔断期间每次调用都会进入这里，日志限速为每 10 秒一条
+    private static final RateLimitedLogger log =
+            new RateLimitedLogger(LoggerFactory.getLogger(CatalogClientFallback.class), 10, TimeUnit.SECONDS);
+
+    private final LastKnownGoodStore lastKnownGood;
+
+    // enrollment.feign.fallback{client,method,result}：result=stale 返回了缓存数据，unavailable 没有可用数据
+    private final Counter staleCounter;
+    private final Counter unavailableCounter;
+    private final Counter updateSkippedCounter;
+
+    public CatalogClientFallback(LastKnownGoodStore lastKnownGood, PerfMetrics perfMetrics) {
+        this.lastKnownGood = lastKnownGood;
+        this.staleCounter = perfMetrics.counter("enrollment.feign.fallback",
+                Tags.of("client", "catalog-service", "method", "getCourse", "result", "stale"));
+        this.unavailableCounter = perfMetrics.counter("enrollment.feign.fallback",
+                Tags.of("client", "catalog-service", "method", "getCourse", "result", "unavailable"));
+        this.updateSkippedCounter = perfMetrics.counter("enrollment.feign.fallback",
+                Tags.of("client", "catalog-service", "method", "updateCourseEnrollment", "result", "skipped"));
+    }
 
     @Override
     public CourseDto getCourse(Long id) {
-        // 重点：这里用ERROR级别，更容易在日志中看到
-        log.error("🚨🚨🚨 CATALOG SERVICE FALLBACK TRIGGERED! 课程ID: {}", id);
-        log.error("堆栈信息:", new RuntimeException("Fallback triggered"));
+        CourseDto.Data cached = lastKnownGood.course(id);
+        log.warn("课程服务熔断降级 - courseId: {}, 使用缓存: {}", id, cached != null);
 
-        // 创建降级数据，不要抛出异常！
+        // 有最近一次成功的数据时返回旧数据（标记为 stale），否则返回 503 且不带数据
         CourseDto courseDto = new CourseDto();
-        courseDto.setCode(503);
-        courseDto.setMessage("课程服务不可用（熔断降级）");
-
-        if (courseDto.getData() == null) {
-            CourseDto.Data data = new CourseDto.Data();
-            data.setId(-1L);
-            data.setCode("FALLBACK_COURSE");
-            data.setTitle("【熔断降级】课程服务不可用");
-            data.setDescription("服务暂时不可用，请稍后再试");
-            courseDto.setData(data);
+        if (cached != null) {
+            courseDto.setCode(200);
+            courseDto.setMessage("课程服务不可用（熔断降级），返回缓存数据");
+            courseDto.setData(cached);
+            courseDto.setStale(true);
+            staleCounter.increment();
         } else {
-            courseDto.getData().setTitle("【熔断降级】课程服务不可用");
+            courseDto.setCode(503);
+            courseDto.setMessage("课程服务不可用（熔断降级）");
+            unavailableCounter.increment();
         }
-
         return courseDto;
     }
 
     @Override
     public void updateCourseEnrollment(Long id, int count) {
-        log.warn("CatalogClient fallback triggered for update enrollment, course: {}, count: {}", id, count);
+        log.warn("课程服务熔断降级 - 更新选课人数被跳过, courseId: {}, count: {}", id, count);
         // 对于更新操作，只记录日志
+        updateSkippedCounter.increment();
     }
-}
\ No newline at end of file
+}
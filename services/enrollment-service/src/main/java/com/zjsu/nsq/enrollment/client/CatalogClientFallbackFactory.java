@@ -0,0 +1,68 @@
+package com.zjsu.nsq.enrollment.client;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.util.RateLimitedLogger;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 课程服务降级入口：按失败原因选择降级方式
+ * - 舱壁已满（BulkheadFullException）：下游是健康的，只是本实例的并发名额用完了，
+ *   直接返回 503 让调用方快速失败，不返回缓存数据（否则选课 / 退课会基于旧的已选人数做判断）
+ * - 其他失败（熔断打开、超时、下游报错）：交给 CatalogClientFallback，有缓存时返回 stale 数据供只读展示
+ */
+@Component
+public class CatalogClientFallbackFactory implements FallbackFactory<CatalogClient> {
+
+    private static final RateLimitedLogger log =
+            new RateLimitedLogger(LoggerFactory.getLogger(CatalogClientFallbackFactory.class), 10, TimeUnit.SECONDS);
+
+    private final CatalogClientFallback fallback;
+    private final CatalogClient rejected;
+
+    public CatalogClientFallbackFactory(CatalogClientFallback fallback, PerfMetrics perfMetrics) {
+        this.fallback = fallback;
+        Counter rejectedCounter = perfMetrics.counter("enrollment.feign.fallback",
+                Tags.of("client", "catalog-service", "method", "getCourse", "result", "rejected"));
+        Counter updateRejectedCounter = perfMetrics.counter("enrollment.feign.fallback",
+                Tags.of("client", "catalog-service", "method", "updateCourseEnrollment", "result", "rejected"));
+        this.rejected = new CatalogClient() {
+            @Override
+            public CourseDto getCourse(Long id) {
+                log.warn("课程服务舱壁已满，快速失败 - courseId: {}", id);
+                rejectedCounter.increment();
+                CourseDto courseDto = new CourseDto();
+                courseDto.setCode(503);
+                courseDto.setMessage("课程服务繁忙（舱壁已满），请稍后重试");
+                return courseDto;
+            }
+
+            @Override
+            public void updateCourseEnrollment(Long id, int count) {
+                log.warn("课程服务舱壁已满 - 更新选课人数被跳过, courseId: {}, count: {}", id, count);
+                updateRejectedCounter.increment();
+            }
+        };
+    }
+
+    @Override
+    public CatalogClient create(Throwable cause) {
+        return isBulkheadFull(cause) ? rejected : fallback;
+    }
+
+    private static boolean isBulkheadFull(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof BulkheadFullException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
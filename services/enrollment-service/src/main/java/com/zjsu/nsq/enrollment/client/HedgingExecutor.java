@@ -0,0 +1,269 @@
+package com.zjsu.nsq.enrollment.client;
+
+import com.zjsu.nsq.commons.trace.TraceContextHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 幂等读请求的对冲执行器（hedged requests）
+ * 第一次调用在观测到的 p95 时间内没有返回时，再发出第二次调用，取先返回的可用结果。
+ * 第二次调用经过 LoadBalancer 轮询会落到另一个实例上。
+ * 对冲次数受预算限制（默认不超过正常调用量的 5%）。
+ */
+@Component
+public class HedgingExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingExecutor.class);
+
+    // 估算 p95 前至少需要的样本数
+    private static final int MIN_SAMPLES = 20;
+
+    @Value("${enrollment.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${enrollment.hedging.budget-percent:5}")
+    private double budgetPercent;
+
+    @Value("${enrollment.hedging.min-delay-ms:20}")
+    private long minDelayMs;
+
+    @Value("${enrollment.hedging.max-delay-ms:1000}")
+    private long maxDelayMs;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+    private final HedgeBudget budget = new HedgeBudget();
+    private final ThreadPoolExecutor executor;
+
+    public HedgingExecutor(MeterRegistry meterRegistry,
+                           @Value("${enrollment.hedging.pool-size:32}") int poolSize) {
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(poolSize * 4), runnable -> {
+            Thread thread = new Thread(runnable, "hedge-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 执行一次可对冲的读调用
+     *
+     * @param name       下游名称（用于延迟统计和指标标签）
+     * @param call       实际的 Feign 调用
+     * @param acceptable 结果是否可用（熔断降级数据不算可用结果）
+     */
+    public <T> T call(String name, Supplier<T> call, Predicate<T> acceptable) {
+        if (!enabled) {
+            return call.get();
+        }
+        // 两次调用都在 hedge 线程上执行，带上调用线程的 TraceContext / MDC
+        call = TraceContextHolder.wrap(call);
+
+        LatencyWindow window = windows.computeIfAbsent(name, key -> new LatencyWindow());
+        budget.deposit(budgetPercent);
+
+        CompletableFuture<T> primary;
+        try {
+            primary = submit(call, window);
+        } catch (RejectedExecutionException e) {
+            // 执行器已满：不对冲，直接在当前线程调用
+            return call.get();
+        }
+
+        try {
+            return primary.get(window.hedgeDelayMillis(minDelayMs, maxDelayMs), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 超过 p95 仍未返回，尝试对冲
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("调用被中断: " + name, e);
+        }
+
+        if (!budget.tryWithdraw()) {
+            counter(name, "budget_denied").increment();
+            return join(primary);
+        }
+
+        CompletableFuture<T> hedge;
+        try {
+            hedge = CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            return join(primary);
+        }
+        counter(name, "sent").increment();
+        log.debug("对冲请求已发出 - {}", name);
+
+        return join(firstAcceptable(name, primary, hedge, acceptable));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call, LatencyWindow window) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(call, executor);
+        // 只记录第一次调用的耗时，避免对冲结果拉低 p95 估计
+        future.whenComplete((result, error) -> window.record(System.nanoTime() - start));
+        return future;
+    }
+
+    /**
+     * 取先返回的可用结果；两次都不可用时以第一次调用的结果为准
+     */
+    private <T> CompletableFuture<T> firstAcceptable(String name, CompletableFuture<T> primary,
+                                                     CompletableFuture<T> hedge, Predicate<T> acceptable) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+
+        primary.whenComplete((result, error) -> {
+            if (error == null && acceptable.test(result)) {
+                winner.complete(result);
+            } else if (remaining.decrementAndGet() == 0) {
+                settleWithPrimary(winner, primary);
+            }
+        });
+        hedge.whenComplete((result, error) -> {
+            if (error == null && acceptable.test(result)) {
+                if (winner.complete(result)) {
+                    counter(name, "won").increment();
+                }
+            } else if (remaining.decrementAndGet() == 0) {
+                settleWithPrimary(winner, primary);
+            }
+        });
+        return winner;
+    }
+
+    private <T> void settleWithPrimary(CompletableFuture<T> winner, CompletableFuture<T> primary) {
+        primary.whenComplete((result, error) -> {
+            if (error != null) {
+                winner.completeExceptionally(error);
+            } else {
+                winner.complete(result);
+            }
+        });
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("调用被中断", e);
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof java.util.concurrent.CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    private Counter counter(String name, String event) {
+        return Counter.builder("enrollment.hedge")
+                .description("对冲请求统计（sent=发出, won=对冲先返回, budget_denied=预算不足）")
+                .tag("client", name)
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 最近 N 次调用耗时的滑动窗口，用于估算 p95
+     */
+    static final class LatencyWindow {
+        private static final int SIZE = 256;
+        private static final int RECOMPUTE_EVERY = 32;
+
+        private final long[] samples = new long[SIZE];
+        private final ReentrantLock lock = new ReentrantLock();
+        private int count;
+        private int next;
+        private volatile long p95Nanos = -1;
+
+        void record(long nanos) {
+            lock.lock();
+            try {
+                samples[next] = nanos;
+                next = (next + 1) % SIZE;
+                count++;
+                if (count == MIN_SAMPLES || (count > MIN_SAMPLES && count % RECOMPUTE_EVERY == 0)) {
+                    long[] copy = Arrays.copyOf(samples, Math.min(count, SIZE));
+                    Arrays.sort(copy);
+                    p95Nanos = copy[(int) Math.ceil(copy.length * 0.95) - 1];
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long hedgeDelayMillis(long minDelayMs, long maxDelayMs) {
+            long p95 = p95Nanos;
+            if (p95 < 0) {
+                return maxDelayMs;
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(p95);
+            return Math.max(minDelayMs, Math.min(maxDelayMs, millis));
+        }
+    }
+
+    /**
+     * 对冲预算（令牌桶）：每次正常调用存入 budgetPercent/100 个令牌，每次对冲消耗 1 个
+     */
+    static final class HedgeBudget {
+        private static final long SCALE = 1000;
+        private static final long MAX_TOKENS = 10 * SCALE;
+
+        private final AtomicLong tokens = new AtomicLong();
+
+        void deposit(double budgetPercent) {
+            long amount = (long) (budgetPercent * SCALE / 100);
+            tokens.getAndUpdate(current -> Math.min(MAX_TOKENS, current + amount));
+        }
+
+        boolean tryWithdraw() {
+            while (true) {
+                long current = tokens.get();
+                if (current < SCALE) {
+                    return false;
+                }
+                if (tokens.compareAndSet(current, current - SCALE)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
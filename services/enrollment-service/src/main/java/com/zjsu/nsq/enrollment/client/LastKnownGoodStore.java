@@ -0,0 +1,88 @@
+package com.zjsu.nsq.enrollment.client;
+
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.dto.StudentDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 下游服务最近一次成功响应的本地副本（有容量上限的 LRU）
+ * 熔断降级时由 Fallback 读取，返回标记为 stale 的旧数据，而不是伪造的占位数据。
+ */
+@Component
+public class LastKnownGoodStore {
+
+    private final Lru<StudentDto.Data> students;
+    private final Lru<CourseDto.Data> courses;
+
+    public LastKnownGoodStore(@Value("${enrollment.last-known-good.max-entries:10000}") int maxEntries) {
+        this.students = new Lru<>(maxEntries);
+        this.courses = new Lru<>(maxEntries);
+    }
+
+    public void rememberStudent(Long id, StudentDto response) {
+        if (id != null && response != null && response.isSuccess() && !response.isStale()
+                && response.getData() != null) {
+            students.put(id, response.getData());
+        }
+    }
+
+    public void rememberCourse(Long id, CourseDto response) {
+        if (id != null && response != null && response.isSuccess() && !response.isStale()
+                && response.getData() != null) {
+            courses.put(id, response.getData());
+        }
+    }
+
+    /**
+     * 最近一次成功的学生数据，没有时返回 null
+     */
+    public StudentDto.Data student(Long id) {
+        return id != null ? students.get(id) : null;
+    }
+
+    /**
+     * 最近一次成功的课程数据，没有时返回 null
+     */
+    public CourseDto.Data course(Long id) {
+        return id != null ? courses.get(id) : null;
+    }
+
+    // ==================== 内部类 ====================
+
+    private static final class Lru<V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, V> entries;
+
+        Lru(int maxEntries) {
+            this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        void put(Long key, V value) {
+            lock.lock();
+            try {
+                entries.put(key, value);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        V get(Long key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.zjsu.nsq.enrollment.client;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.commons.trace.TraceContext;
+import com.zjsu.nsq.commons.trace.TraceContextHolder;
+import com.zjsu.nsq.commons.web.InternalMediaTypes;
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.dto.StudentDto;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.util.RateLimitedLogger;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * user-service / catalog-service 的非阻塞客户端（响应式选课接口使用）
+ * 与 Feign 客户端的行为保持一致：
+ * - 优先请求 Smile 编码的精简视图，转发 traceparent / X-Request-Id
+ * - 4xx 视为数据不存在（返回空）；5xx、超时、连接失败时退回最近一次成功的数据，
+ *   没有则报 ServiceUnavailableException（接口返回 503，而不是当作业务失败的 400）
+ * - 返回完整的 DTO：退回缓存数据时 isStale() 为 true，由调用方决定能否用于写操作
+ * - 计时指标同样记录为 enrollment.downstream.duration{client,outcome}
+ */
+@Component
+public class ReactiveDownstreamClient {
+
+    private static final RateLimitedLogger log =
+            new RateLimitedLogger(LoggerFactory.getLogger(ReactiveDownstreamClient.class), 10, TimeUnit.SECONDS);
+
+    private final WebClient webClient;
+    private final LastKnownGoodStore lastKnownGood;
+    private final PerfMetrics perfMetrics;
+
+    public ReactiveDownstreamClient(WebClient downstreamWebClient,
+                                    LastKnownGoodStore lastKnownGood,
+                                    PerfMetrics perfMetrics) {
+        this.webClient = downstreamWebClient;
+        this.lastKnownGood = lastKnownGood;
+        this.perfMetrics = perfMetrics;
+    }
+
+    public Mono<StudentDto> getStudent(Long id) {
+        Consumer<HttpHeaders> headers = traceHeaders();
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(perfMetrics.registry());
+            return webClient.get()
+                    .uri("http://user-service/api/users/students/{id}", id)
+                    .accept(InternalMediaTypes.SMILE, MediaType.APPLICATION_JSON)
+                    .headers(headers)
+                    .retrieve()
+                    .bodyToMono(StudentDto.class)
+                    .doOnNext(dto -> lastKnownGood.rememberStudent(id, dto))
+                    .filter(dto -> dto.isSuccess() && dto.getData() != null)
+                    .doOnSuccess(data -> sample.stop(timer("user-service", "success")))
+                    .onErrorResume(ReactiveDownstreamClient::isClientError, e -> {
+                        sample.stop(timer("user-service", "success"));
+                        return Mono.empty();
+                    })
+                    .onErrorResume(e -> {
+                        StudentDto.Data cached = lastKnownGood.student(id);
+                        sample.stop(timer("user-service", cached != null ? "stale" : "error"));
+                        log.warn("用户服务调用失败 - userId: {}, 原因: {}", id, e.toString());
+                        if (cached == null) {
+                            return Mono.error(new ServiceUnavailableException("用户服务不可用，userId: " + id, e));
+                        }
+                        StudentDto stale = new StudentDto();
+                        stale.setCode(200);
+                        stale.setMessage("用户服务不可用，返回缓存数据");
+                        stale.setData(cached);
+                        stale.setStale(true);
+                        return Mono.just(stale);
+                    });
+        });
+    }
+
+    public Mono<CourseDto> getCourse(Long id) {
+        Consumer<HttpHeaders> headers = traceHeaders();
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(perfMetrics.registry());
+            return webClient.get()
+                    .uri("http://catalog-service/api/courses/{id}", id)
+                    .accept(InternalMediaTypes.SMILE, MediaType.APPLICATION_JSON)
+                    .headers(headers)
+                    .retrieve()
+                    .bodyToMono(CourseDto.class)
+                    .doOnNext(dto -> lastKnownGood.rememberCourse(id, dto))
+                    .filter(dto -> dto.isSuccess() && dto.getData() != null)
+                    .doOnSuccess(data -> sample.stop(timer("catalog-service", "success")))
+                    .onErrorResume(ReactiveDownstreamClient::isClientError, e -> {
+                        sample.stop(timer("catalog-service", "success"));
+                        return Mono.empty();
+                    })
+                    .onErrorResume(e -> {
+                        CourseDto.Data cached = lastKnownGood.course(id);
+                        sample.stop(timer("catalog-service", cached != null ? "stale" : "error"));
+                        log.warn("课程服务调用失败 - courseId: {}, 原因: {}", id, e.toString());
+                        if (cached == null) {
+                            return Mono.error(new ServiceUnavailableException("课程服务不可用，courseId: " + id, e));
+                        }
+                        CourseDto stale = new CourseDto();
+                        stale.setCode(200);
+                        stale.setMessage("课程服务不可用，返回缓存数据");
+                        stale.setData(cached);
+                        stale.setStale(true);
+                        return Mono.just(stale);
+                    });
+        });
+    }
+
+    /**
+     * 回写课程已选人数；失败只记日志（与 Feign 降级时跳过更新一致）
+     */
+    public Mono<Void> updateCourseEnrollment(Long id, int count) {
+        return webClient.put()
+                .uri("http://catalog-service/api/courses/{id}/enrolled?count={count}", id, count)
+                .headers(traceHeaders())
+                .retrieve()
+                .toBodilessEntity()
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("课程人数回写失败 - courseId: {}, 原因: {}", id, e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 在组装时（请求线程上）读取当前 TraceContext，订阅发生在哪个线程都能带上同一条调用链
+     */
+    private static Consumer<HttpHeaders> traceHeaders() {
+        TraceContext context = TraceContextHolder.current();
+        return headers -> {
+            if (context != null) {
+                headers.set(TraceContext.TRACEPARENT_HEADER, context.traceparent());
+                headers.set(TraceContext.REQUEST_ID_HEADER, context.requestId());
+            }
+        };
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError();
+    }
+
+    private Timer timer(String client, String outcome) {
+        return perfMetrics.timer("enrollment.downstream.duration", Tags.of("client", client, "outcome", outcome));
+    }
+}
@@ -1,6 +1,7 @@
 // src/main/java/com/zjsu/nsq/enrollment/client/UserClient.java
 package com.zjsu.nsq.enrollment.client;
 
+import com.zjsu.nsq.commons.web.InternalMediaTypes;
 import com.zjsu.nsq.enrollment.dto.StudentDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 @FeignClient(name = "user-service", fallback = UserClientFallback.class)
 public interface UserClient {
-    @GetMapping("/api/users/students/{id}")
+    // 优先要 Smile 编码的精简视图；下游还没升级时按 q 值退回 JSON
+    @GetMapping(value = "/api/users/students/{id}", headers = InternalMediaTypes.INTERNAL_ACCEPT)
     StudentDto getStudent(@PathVariable Long id);
 }
\ No newline at end of file
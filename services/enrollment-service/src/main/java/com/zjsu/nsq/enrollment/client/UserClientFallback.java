@@ -1,49 +1,54 @@
 package com.zjsu.nsq.enrollment.client;
 
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
 import com.zjsu.nsq.enrollment.dto.StudentDto;
-import org.slf4j.Logger;
+import com.zjsu.nsq.enrollment.util.RateLimitedLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tags;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class UserClientFallback implements UserClient {
 
-    // 重点：确保这里有Logger定义
-    private static final Logger log = LoggerFactory.getLogger(UserClientFallback.class);
+    // 熔断期间每次调用都会进入这里，日志限速为每 10 秒一条
+    private static final RateLimitedLogger log =
+            new RateLimitedLogger(LoggerFactory.getLogger(UserClientFallback.class), 10, TimeUnit.SECONDS);
 
-    @Override
-    public StudentDto getStudent(Long id) {
-        System.err.println("\n\n");
-        System.err.println("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
-        System.err.println("!!! 🚨🚨🚨 作业熔断测试：UserClientFallback被调用！ 🚨🚨🚨 !!!");
-        System.err.println("!!! 学生ID: " + id);
-        System.err.println("!!! 时间: " + java.time.LocalDateTime.now());
-        System.err.println("!!! 请截图此日志作为作业提交证据！");
-        System.err.println("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
-        System.err.println("\n");
-
-        // 同时记录到日志文件
-        log.error("\n\n");
-        log.error("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
-        log.error("!!! 🚨🚨🚨 作业熔断测试：UserClientFallback被调用！ 🚨🚨🚨 !!!");
-        log.error("!!! 学生ID: {}", id);
-        log.error("!!! 时间: {}", java.time.LocalDateTime.now());
-        log.error("!!! 请截图此日志作为作业提交证据！");
-        log.error("!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
-        log.error("\n");
-
-        // 创建明显的降级响应
-        StudentDto studentDto = new StudentDto();
-        studentDto.setCode(503);
-        studentDto.setMessage("【作业熔断降级】用户服务不可用");
+    private final LastKnownGoodStore lastKnownGood;
 
-        StudentDto.Data data = new StudentDto.Data();
-        data.setId(-1L);
-        data.setName("【作业测试】熔断降级用户");
-        data.setUserId("FALLBACK_TEST_" + System.currentTimeMillis());
+    // enrollment.feign.fallback{client,method,result}：result=stale 返回了缓存数据，unavailable 没有可用数据
+    private final Counter staleCounter;
+    private final Counter unavailableCounter;
 
-        studentDto.setData(data);
+    public UserClientFallback(LastKnownGoodStore lastKnownGood, PerfMetrics perfMetrics) {
+        this.lastKnownGood = lastKnownGood;
+        this.staleCounter = perfMetrics.counter("enrollment.feign.fallback",
+                Tags.of("client", "user-service", "method", "getStudent", "result", "stale"));
+        this.unavailableCounter = perfMetrics.counter("enrollment.feign.fallback",
+                Tags.of("client", "user-service", "method", "getStudent", "result", "unavailable"));
+    }
 
+    @Override
+    public StudentDto getStudent(Long id) {
+        StudentDto.Data cached = lastKnownGood.student(id);
+        log.warn("用户服务熔断降级 - userId: {}, 使用缓存: {}", id, cached != null);
+
+        // 有最近一次成功的数据时返回旧数据（标记为 stale），否则返回 503 且不带数据
+        StudentDto studentDto = new StudentDto();
+        if (cached != null) {
+            studentDto.setCode(200);
+            studentDto.setMessage("用户服务不可用（熔断降级），返回缓存数据");
+            studentDto.setData(cached);
+            studentDto.setStale(true);
+            staleCounter.increment();
+        } else {
+            studentDto.setCode(503);
+            studentDto.setMessage("用户服务不可用（熔断降级）");
+            unavailableCounter.increment();
+        }
         return studentDto;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.zjsu.nsq.enrollment.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 舱壁饱和度：GET /actuator/bulkheads
+ * 同样的数据也以 resilience4j.bulkhead.* 指标暴露在 /actuator/metrics 下。
+ */
+@Component
+@Endpoint(id = "bulkheads")
+public class BulkheadEndpoint {
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public BulkheadEndpoint(BulkheadRegistry bulkheadRegistry) {
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, BulkheadStatus> bulkheads() {
+        Map<String, BulkheadStatus> result = new TreeMap<>();
+        for (Bulkhead bulkhead : bulkheadRegistry.getAllBulkheads()) {
+            int max = bulkhead.getBulkheadConfig().getMaxConcurrentCalls();
+            int available = bulkhead.getMetrics().getAvailableConcurrentCalls();
+            int inUse = max - available;
+            double saturation = max > 0 ? (double) inUse / max : 0;
+            result.put(bulkhead.getName(), new BulkheadStatus(max, available, inUse, saturation));
+        }
+        return result;
+    }
+
+    public record BulkheadStatus(int maxConcurrentCalls, int availableConcurrentCalls,
+                                 int inUse, double saturation) {
+    }
+}
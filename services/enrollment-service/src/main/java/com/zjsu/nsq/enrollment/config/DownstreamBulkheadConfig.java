@@ -0,0 +1,48 @@
+package com.zjsu.nsq.enrollment.config;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4jBulkheadProvider;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 按下游服务划分的舱壁（信号量）
+ * Feign 熔断器开启分组后，熔断器/舱壁的 id 就是 Feign 客户端名（user-service、catalog-service），
+ * 某个下游变慢时只会占满它自己的并发名额，不会拖垮其他下游的调用。
+ */
+@Configuration
+public class DownstreamBulkheadConfig {
+
+    @Value("${enrollment.bulkhead.user-service.max-concurrent-calls:20}")
+    private int userMaxConcurrentCalls;
+
+    @Value("${enrollment.bulkhead.user-service.max-wait-ms:0}")
+    private long userMaxWaitMs;
+
+    @Value("${enrollment.bulkhead.catalog-service.max-concurrent-calls:30}")
+    private int catalogMaxConcurrentCalls;
+
+    @Value("${enrollment.bulkhead.catalog-service.max-wait-ms:0}")
+    private long catalogMaxWaitMs;
+
+    @Bean
+    public Customizer<Resilience4jBulkheadProvider> downstreamBulkheadCustomizer() {
+        return provider -> {
+            provider.configure(builder -> builder
+                    .bulkheadConfig(semaphore(userMaxConcurrentCalls, userMaxWaitMs)), "user-service");
+            provider.configure(builder -> builder
+                    .bulkheadConfig(semaphore(catalogMaxConcurrentCalls, catalogMaxWaitMs)), "catalog-service");
+        };
+    }
+
+    private static BulkheadConfig semaphore(int maxConcurrentCalls, long maxWaitMs) {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.zjsu.nsq.enrollment.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Feign 连接池指标
+ * 引入 feign-hc5 后 UserClient / CatalogClient 都走 Apache HttpClient 5 的连接池（keep-alive 复用连接），
+ * 池的大小、超时见 spring.cloud.openfeign.httpclient。这里把池的状态注册成指标：
+ * httpcomponents.httpclient.pool.total.connections{state=available|leased}、
+ * httpcomponents.httpclient.pool.total.pending（等待连接的请求数）等，httpclient=feign。
+ */
+@Configuration
+public class FeignConnectionPoolConfig {
+
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> {
+            // 连接池由 Spring Cloud OpenFeign 创建；hc5 被关闭时没有这个 Bean，不注册指标
+            if (connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.zjsu.nsq.enrollment.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson 配置
+ * Blackbird 用 LambdaMetafactory 生成属性读写器并随序列化器一起缓存，
+ * 响应记录类型（ApiResponse、EnrollmentView）序列化时不再走反射调用。
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,134 @@
+package com.zjsu.nsq.enrollment.config;
+
+import com.zjsu.nsq.enrollment.jfr.EnrollmentStageEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 有界 JFR 录制：/actuator/jfr
+ * - POST   开始录制（durationSeconds、maxSizeMb 有上限，到时自动停止）
+ * - GET    查看当前录制状态
+ * - DELETE 停止录制并下载 .jfr 文件（用 JMC 打开，按 EnrollmentStageEvent 的 operation / stage 分析）
+ * 同一时间只允许一个录制。录制不含启动时的环境变量和系统属性（里面有数据库密码、JWT 密钥），
+ * 导出文件在下载读完后即删除。
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+
+    @Value("${enrollment.jfr.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${enrollment.jfr.max-size-mb:64}")
+    private long maxSizeMb;
+
+    private Recording recording;
+    private Instant startedAt;
+    private Path lastDump;
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Long durationSeconds, @Nullable Long sizeMb)
+            throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return status("already_running");
+        }
+        closeRecording();
+
+        long seconds = Math.min(durationSeconds != null && durationSeconds > 0 ? durationSeconds : 60,
+                maxDurationSeconds);
+        long megabytes = Math.min(sizeMb != null && sizeMb > 0 ? sizeMb : maxSizeMb, maxSizeMb);
+
+        // 在 JDK 自带的 default 配置（约 1% 开销）基础上打开选课阶段事件
+        Recording fresh = new Recording(Configuration.getConfiguration("default"));
+        fresh.setName("enrollment-stages");
+        fresh.enable(EnrollmentStageEvent.NAME).withoutThreshold();
+        fresh.disable("jdk.InitialEnvironmentVariable");
+        fresh.disable("jdk.InitialSystemProperty");
+        fresh.setDuration(Duration.ofSeconds(seconds));
+        fresh.setMaxSize(megabytes * 1024 * 1024);
+        fresh.setToDisk(true);
+        fresh.start();
+
+        recording = fresh;
+        startedAt = Instant.now();
+        log.info("JFR 录制已开始 - duration: {}s, maxSize: {}MB", seconds, megabytes);
+        return status("started");
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        return status(recording == null ? "idle" : recording.getState().name().toLowerCase());
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Resource> stopAndDownload() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+
+        // 下载读完即删除；没被读走的（客户端中途断开）在下一次导出时清理
+        if (lastDump != null) {
+            Files.deleteIfExists(lastDump);
+        }
+        Path dump = Files.createTempFile("enrollment-", ".jfr");
+        recording.dump(dump);
+        lastDump = dump;
+        closeRecording();
+
+        log.info("JFR 录制已导出 - file: {}, size: {} bytes", dump, Files.size(dump));
+        return new WebEndpointResponse<>(new FileSystemResource(dump) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return Files.newInputStream(dump, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+        }, WebEndpointResponse.STATUS_OK);
+    }
+
+    private Map<String, Object> status(String state) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state);
+        if (recording != null) {
+            status.put("startedAt", startedAt);
+            status.put("duration", recording.getDuration());
+            status.put("maxSizeBytes", recording.getMaxSize());
+        }
+        return status;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            startedAt = null;
+        }
+    }
+}
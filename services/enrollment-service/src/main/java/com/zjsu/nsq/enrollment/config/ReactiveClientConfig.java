@@ -0,0 +1,68 @@
+package com.zjsu.nsq.enrollment.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * 响应式选课接口（/api/enrollments/rx）的基础设施
+ * - downstreamWebClient：Reactor Netty 连接池 + Spring Cloud LoadBalancer，按服务名（user-service、catalog-service）调用，
+ *   等待下游时不占用任何线程，I/O 只在少量事件循环线程上处理
+ * - enrollmentJdbcScheduler：JPA 仍是阻塞的，只允许在这个有界调度器上执行，
+ *   线程数与数据库连接池相当，排队满了直接拒绝（返回 503），不会拖住事件循环线程
+ */
+@Configuration
+public class ReactiveClientConfig {
+
+    @Value("${enrollment.reactive.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${enrollment.reactive.pending-acquire-max:1000}")
+    private int pendingAcquireMax;
+
+    @Value("${enrollment.reactive.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${enrollment.reactive.response-timeout-ms:3000}")
+    private long responseTimeoutMs;
+
+    @Value("${enrollment.reactive.jdbc-threads:10}")
+    private int jdbcThreads;
+
+    @Value("${enrollment.reactive.jdbc-queue:1000}")
+    private int jdbcQueue;
+
+    @Bean
+    public WebClient downstreamWebClient(WebClient.Builder builder,
+                                         ReactorLoadBalancerExchangeFilterFunction loadBalancer) {
+        ConnectionProvider connections = ConnectionProvider.builder("enrollment-rx")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .compress(true);
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(loadBalancer)
+                .build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler enrollmentJdbcScheduler() {
+        return Schedulers.newBoundedElastic(jdbcThreads, jdbcQueue, "enrollment-jdbc");
+    }
+}
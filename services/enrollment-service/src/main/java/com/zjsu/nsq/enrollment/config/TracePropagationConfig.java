@@ -0,0 +1,53 @@
+package com.zjsu.nsq.enrollment.config;
+
+import com.zjsu.nsq.commons.trace.TraceContext;
+import com.zjsu.nsq.commons.trace.TraceContextHolder;
+import feign.RequestInterceptor;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feign 调用的调用链传播
+ * - 请求拦截器：把当前 span（EnrollmentService 为每次下游调用开启的子 span）写成 traceparent，连同 X-Request-Id 一起转发
+ * - 熔断器的 TimeLimiter 会把 Feign 调用放到线程池里执行，这里换成会携带 TraceContext / MDC 的线程池，
+ *   否则拦截器在池线程上读不到当前 span
+ */
+@Configuration
+public class TracePropagationConfig {
+
+    @Bean
+    public RequestInterceptor tracePropagationInterceptor() {
+        return template -> {
+            TraceContext context = TraceContextHolder.current();
+            if (context != null) {
+                template.header(TraceContext.TRACEPARENT_HEADER, context.traceparent());
+                template.header(TraceContext.REQUEST_ID_HEADER, context.requestId());
+            }
+        };
+    }
+
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> tracePropagatingExecutorCustomizer() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 与默认的 newCachedThreadPool 相同的参数，只是在提交时捕获调用线程的上下文
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "circuitbreaker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) {
+            @Override
+            public void execute(Runnable command) {
+                super.execute(TraceContextHolder.wrap(command));
+            }
+        };
+        return factory -> factory.configureExecutorService(executor);
+    }
+}
@@ -0,0 +1,100 @@
+package com.zjsu.nsq.enrollment.controller;
+
+import com.zjsu.nsq.commons.web.ApiResponse;
+import com.zjsu.nsq.enrollment.dto.EnrollmentTicketView;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommand;
+import com.zjsu.nsq.enrollment.repository.EnrollmentCommandRepository;
+import com.zjsu.nsq.enrollment.service.EnrollmentTicketNotifier;
+import com.zjsu.nsq.enrollment.service.LotteryService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 异步选课接口：选课高峰时只写入一条命令就返回 202 + ticket，
+ * 由 EnrollmentCommandWorker 在后台按课程批量处理。
+ * 结果通过 GET /{ticket} 轮询，或订阅 GET /{ticket}/events（SSE，推送一次 result 事件后关闭）。
+ */
+@RestController
+@RequestMapping("/api/enrollments/async")
+public class AsyncEnrollmentController {
+
+    private static final String BASE_PATH = "/api/enrollments/async/";
+
+    private final EnrollmentCommandRepository commandRepository;
+    private final EnrollmentTicketNotifier notifier;
+    private final LotteryService lotteryService;
+
+    public AsyncEnrollmentController(EnrollmentCommandRepository commandRepository,
+                                     EnrollmentTicketNotifier notifier,
+                                     LotteryService lotteryService) {
+        this.commandRepository = commandRepository;
+        this.notifier = notifier;
+        this.lotteryService = lotteryService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> submit(@RequestBody Map<String, String> request) {
+        String courseId = request.get("courseId");
+        String userId = request.get("userId");
+        if (!isNumeric(courseId) || !isNumeric(userId)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "courseId 和 userId 必须是数字"));
+        }
+        if (lotteryService.isLotteryActive(courseId)) {
+            return ResponseEntity.status(409)
+                    .body(ApiResponse.error(409, "课程处于抽签选课窗口，请通过 POST /api/enrollments 报名"));
+        }
+
+        EnrollmentCommand command = new EnrollmentCommand();
+        command.setId(UUID.randomUUID().toString());
+        command.setCourseId(courseId);
+        command.setUserId(userId);
+        command = commandRepository.save(command);
+
+        String statusUrl = BASE_PATH + command.getId();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("ticket", EnrollmentTicketView.from(command));
+        data.put("statusUrl", statusUrl);
+        data.put("eventsUrl", statusUrl + "/events");
+        return ResponseEntity.accepted()
+                .location(URI.create(statusUrl))
+                .body(ApiResponse.of(202, "选课请求已受理", data));
+    }
+
+    @GetMapping("/{ticket}")
+    public ResponseEntity<ApiResponse<EnrollmentTicketView>> status(@PathVariable String ticket) {
+        return commandRepository.findById(ticket)
+                .map(command -> ResponseEntity.ok(ApiResponse.of(200, "Success", EnrollmentTicketView.from(command))))
+                .orElseGet(() -> ResponseEntity.status(404).body(ApiResponse.error(404, "票据不存在: " + ticket)));
+    }
+
+    @GetMapping(value = "/{ticket}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String ticket) {
+        return commandRepository.findById(ticket)
+                .map(command -> ResponseEntity.ok(notifier.subscribe(command)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static boolean isNumeric(String value) {
+        if (value == null || value.isEmpty() || value.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
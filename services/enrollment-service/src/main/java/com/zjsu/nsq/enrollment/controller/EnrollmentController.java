@@ -4,20 +4,24 @@ package com.zjsu.nsq.enrollment.controller;
 import com.zjsu.nsq.enrollment.client.UserClient;
 import com.zjsu.nsq.enrollment.client.CatalogClient;
 import com.zjsu.nsq.enrollment.client.UserClientFallback;
+import com.zjsu.nsq.commons.instance.InstanceIdentity;
+import com.zjsu.nsq.commons.instance.LoadBalancedRequestLogger;
+import com.zjsu.nsq.commons.web.ApiResponse;
 import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.dto.EnrollmentView;
+import com.zjsu.nsq.enrollment.dto.LotteryEntryView;
 import com.zjsu.nsq.enrollment.dto.StudentDto;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
 import com.zjsu.nsq.enrollment.model.Enrollment;
 import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
 import com.zjsu.nsq.enrollment.service.EnrollmentService;
+import com.zjsu.nsq.enrollment.service.LotteryService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.env.Environment;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.InetAddress;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -32,32 +36,35 @@ public class EnrollmentController {
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentController.class);
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    @Value("${server.port:8082}")
-    private String serverPort;
-
-    @Autowired
-    private Environment environment;
-
     private final EnrollmentService service;
     private final UserClient userClient;
     private final CatalogClient catalogClient;
+    private final InstanceIdentity instanceIdentity;
+    private final LoadBalancedRequestLogger requestLogger;
+    private final LotteryService lotteryService;
 
     @Autowired
     public EnrollmentController(EnrollmentService service,
                                 UserClient userClient,
-                                CatalogClient catalogClient) {
+                                CatalogClient catalogClient,
+                                InstanceIdentity instanceIdentity,
+                                LoadBalancedRequestLogger requestLogger,
+                                LotteryService lotteryService) {
         this.service = service;
         this.userClient = userClient;
         this.catalogClient = catalogClient;
+        this.instanceIdentity = instanceIdentity;
+        this.requestLogger = requestLogger;
+        this.lotteryService = lotteryService;
     }
 
     /**
      * 负载均衡测试接口
      */
     @GetMapping("/lb-test")
-    public ResponseEntity<Map<String, Object>> loadBalancerTest() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> loadBalancerTest() {
         String timestamp = LocalDateTime.now().format(formatter);
-        String instanceInfo = getInstanceInfo();
+        String instanceInfo = instanceIdentity.describe();
 
         Map<String, Object> response = new HashMap<>();
         response.put("service", "enrollment-service");
@@ -77,10 +84,10 @@ public class EnrollmentController {
      * 获取服务实例信息（用于负载均衡测试）
      */
     @GetMapping("/instance-info")
-    public ResponseEntity<Map<String, Object>> getInstanceInfoEndpoint() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getInstanceInfoEndpoint() {
         Map<String, Object> response = new HashMap<>();
         response.put("service", "enrollment-service");
-        response.put("instance", getInstanceInfo());
+        response.put("instance", instanceIdentity.describe());
         response.put("timestamp", System.currentTimeMillis());
         return ResponseEntity.ok(createResponse(200, "Success", response));
     }
@@ -89,49 +96,26 @@ public class EnrollmentController {
      * 健康检查接口（负载均衡专用）
      */
     @GetMapping("/health/lb")
-    public ResponseEntity<Map<String, Object>> loadBalancerHealth() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> loadBalancerHealth() {
         Map<String, Object> health = new HashMap<>();
         health.put("status", "UP");
         health.put("service", "enrollment-service");
-        health.put("instance", getInstanceInfo());
+        health.put("instance", instanceIdentity.describe());
         health.put("timestamp", System.currentTimeMillis());
         health.put("message", "Ready for load balancing");
         return ResponseEntity.ok(createResponse(200, "Service is running", health));
     }
 
     /**
-     * 获取实例信息字符串
-     */
-    private String getInstanceInfo() {
-        try {
-            return String.format("IP: %s, Port: %s",
-                    InetAddress.getLocalHost().getHostAddress(),
-                    serverPort);
-        } catch (Exception e) {
-            return "Port: " + serverPort;
-        }
-    }
-
-    /**
-     * 记录负载均衡请求日志
+     * 创建统一响应格式
      */
-    private void logLoadBalancedRequest(String methodName, String param) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        String instanceInfo = getInstanceInfo();
-
-        logger.info("【负载均衡】enrollment-service 实例: {} 处理了 {}({}) 请求，时间: {}",
-                instanceInfo, methodName, param, timestamp);
+    private static <T> ApiResponse<T> createResponse(int code, String msg, T data) {
+        return ApiResponse.of(code, msg, data);
     }
 
-    /**
-     * 创建统一响应格式
-     */
-    private Map<String, Object> createResponse(int code, String msg, Object data) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("code", code);
-        response.put("message", msg);
-        response.put("data", data);
-        return response;
+    // 选课 / 退课失败：下游不可用（只有缓存数据）返回 503，客户端可以重试；其余按业务失败返回 400
+    private static int failureStatus(Exception e) {
+        return e instanceof ServiceUnavailableException ? 503 : 400;
     }
 
 
@@ -140,7 +124,7 @@ public class EnrollmentController {
      * 返回简单的响应，方便查看日志
      */
     @GetMapping("/test/circuit-only")
-    public ResponseEntity<Map<String, Object>> testCircuitBreakerOnly() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> testCircuitBreakerOnly() {
         Map<String, Object> result = new HashMap<>();
         result.put("timestamp", System.currentTimeMillis());
         result.put("test", "熔断降级测试");
@@ -176,7 +160,7 @@ public class EnrollmentController {
      * 这个接口会捕获异常并检查是否是fallback
      */
     @GetMapping("/test/circuit-verify")
-    public ResponseEntity<Map<String, Object>> verifyCircuitBreaker() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> verifyCircuitBreaker() {
         Map<String, Object> result = new HashMap<>();
         result.put("timestamp", System.currentTimeMillis());
         result.put("test", "熔断降级验证测试");
@@ -189,10 +173,12 @@ public class EnrollmentController {
             result.put("code", response.getCode());
             result.put("message", response.getMessage());
 
-            // 判断响应
-            if (response.getCode() == 503 &&
+            result.put("stale", response.isStale());
+
+            // 判断响应（降级时可能返回 503，也可能返回标记为 stale 的缓存数据）
+            if (response.isStale() || (response.getCode() == 503 &&
                     response.getMessage() != null &&
-                    response.getMessage().contains("熔断降级")) {
+                    response.getMessage().contains("熔断降级"))) {
                 result.put("isFallback", true);
                 result.put("fallbackEvidence", "✅ Fallback被正确触发！");
                 logger.error("🎯🎯🎯 FALLBACK触发成功！这是作业需要的证据！");
@@ -220,12 +206,12 @@ public class EnrollmentController {
      * 测试 OpenFeign 连接性（修正版，使用数字ID 1）
      */
     @GetMapping("/test/feign-v2")
-    public ResponseEntity<Map<String, Object>> testFeignClientsV2() {
-        logLoadBalancedRequest("testFeignClientsV2", "");
+    public ResponseEntity<ApiResponse<Map<String, Object>>> testFeignClientsV2() {
+        requestLogger.log("testFeignClientsV2", "");
 
         Map<String, Object> result = new HashMap<>();
         result.put("service", "enrollment-service");
-        result.put("port", environment.getProperty("local.server.port"));
+        result.put("port", instanceIdentity.port());
         result.put("timestamp", System.currentTimeMillis());
 
         // 测试 UserClient（使用数字ID 1）
@@ -267,8 +253,8 @@ public class EnrollmentController {
      * 获取熔断器状态
      */
     @GetMapping("/circuit-breaker/status")
-    public ResponseEntity<Map<String, Object>> getCircuitBreakerStatus() {
-        logLoadBalancedRequest("getCircuitBreakerStatus", "");
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCircuitBreakerStatus() {
+        requestLogger.log("getCircuitBreakerStatus", "");
 
         Map<String, Object> status = new HashMap<>();
         status.put("userServiceCircuitBreaker", "ENABLED");
@@ -284,28 +270,17 @@ public class EnrollmentController {
      * 获取服务实例端口信息（原有接口，保持兼容）
      */
     @GetMapping("/port")
-    public ResponseEntity<Map<String, Object>> getPort() {
-        logLoadBalancedRequest("getPort", "");
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPort() {
+        requestLogger.log("getPort", "");
 
         Map<String, Object> response = new HashMap<>();
         response.put("service", "enrollment-service");
 
-        try {
-            // 获取端口
-            String port = environment.getProperty("local.server.port", serverPort);
-            response.put("port", port);
-
-            // 获取IP地址
-            String ip = InetAddress.getLocalHost().getHostAddress();
-            response.put("ip", ip);
-
-            response.put("timestamp", System.currentTimeMillis());
-        } catch (Exception e) {
-            response.put("error", e.getMessage());
-            response.put("port", "unknown");
-            response.put("ip", "unknown");
-            response.put("timestamp", System.currentTimeMillis());
-        }
+        // 端口和IP取自启动时缓存的实例信息，不再每次请求都解析本机地址
+        String ip = instanceIdentity.hostAddress();
+        response.put("port", instanceIdentity.port());
+        response.put("ip", ip != null ? ip : "unknown");
+        response.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(createResponse(200, "Success", response));
     }
@@ -314,8 +289,8 @@ public class EnrollmentController {
      * 测试服务发现
      */
     @GetMapping("/discovery")
-    public ResponseEntity<Map<String, Object>> testDiscovery() {
-        logLoadBalancedRequest("testDiscovery", "");
+    public ResponseEntity<ApiResponse<Map<String, Object>>> testDiscovery() {
+        requestLogger.log("testDiscovery", "");
 
         Map<String, Object> result = new HashMap<>();
 
@@ -323,7 +298,7 @@ public class EnrollmentController {
         Map<String, Object> currentService = new HashMap<>();
         try {
             currentService.put("service", "enrollment-service");
-            currentService.put("port", environment.getProperty("local.server.port", serverPort));
+            currentService.put("port", instanceIdentity.port());
         } catch (Exception e) {
             currentService.put("error", e.getMessage());
         }
@@ -342,33 +317,33 @@ public class EnrollmentController {
     // ==================== 查询接口 ====================
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> list() {
-        logLoadBalancedRequest("list", "all");
+    public ResponseEntity<ApiResponse<List<EnrollmentView>>> list() {
+        requestLogger.log("list", "all");
         List<Enrollment> enrollments = service.findAll();
-        return ResponseEntity.ok(createResponse(200, "Success", enrollments));
+        return ResponseEntity.ok(createResponse(200, "Success", EnrollmentView.fromAll(enrollments)));
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<Map<String, Object>> byCourse(@PathVariable String courseId) {
-        logLoadBalancedRequest("byCourse", courseId);
+    public ResponseEntity<ApiResponse<List<EnrollmentView>>> byCourse(@PathVariable String courseId) {
+        requestLogger.log("byCourse", courseId);
         List<Enrollment> enrollments = service.findByCourse(courseId);
-        return ResponseEntity.ok(createResponse(200, "Success", enrollments));
+        return ResponseEntity.ok(createResponse(200, "Success", EnrollmentView.fromAll(enrollments)));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Map<String, Object>> byUser(@PathVariable String userId) {
-        logLoadBalancedRequest("byUser", userId);
+    public ResponseEntity<ApiResponse<List<EnrollmentView>>> byUser(@PathVariable String userId) {
+        requestLogger.log("byUser", userId);
         List<Enrollment> enrollments = service.findByUser(userId);
-        return ResponseEntity.ok(createResponse(200, "Success", enrollments));
+        return ResponseEntity.ok(createResponse(200, "Success", EnrollmentView.fromAll(enrollments)));
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<Map<String, Object>> byStatus(@PathVariable String status) {
-        logLoadBalancedRequest("byStatus", status);
+    public ResponseEntity<ApiResponse<List<EnrollmentView>>> byStatus(@PathVariable String status) {
+        requestLogger.log("byStatus", status);
         try {
             EnrollmentStatus st = EnrollmentStatus.valueOf(status.toUpperCase());
             List<Enrollment> enrollments = service.findByStatus(st);
-            return ResponseEntity.ok(createResponse(200, "Success", enrollments));
+            return ResponseEntity.ok(createResponse(200, "Success", EnrollmentView.fromAll(enrollments)));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(createResponse(400, "无效的状态值，有效值: ACTIVE, COMPLETED, DROPPED", null));
@@ -376,60 +351,87 @@ public class EnrollmentController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getById(@PathVariable Long id) {
-        logLoadBalancedRequest("getById", String.valueOf(id));
+    public ResponseEntity<ApiResponse<EnrollmentView>> getById(@PathVariable Long id) {
+        requestLogger.log("getById", String.valueOf(id));
         Enrollment enrollment = service.findById(id);
-        return ResponseEntity.ok(createResponse(200, "Success", enrollment));
+        return ResponseEntity.ok(createResponse(200, "Success", EnrollmentView.from(enrollment)));
     }
 
     // ==================== 统计接口 ====================
 
     @GetMapping("/stats/course/{courseId}")
-    public ResponseEntity<Map<String, Object>> courseStats(@PathVariable String courseId) {
-        logLoadBalancedRequest("courseStats", courseId);
+    public ResponseEntity<ApiResponse<Map<String, Object>>> courseStats(@PathVariable String courseId) {
+        requestLogger.log("courseStats", courseId);
         Map<String, Object> stats = service.getEnrollmentStats(courseId);
         return ResponseEntity.ok(createResponse(200, "Success", stats));
     }
 
     @GetMapping("/count/active/user/{userId}")
-    public ResponseEntity<Map<String, Object>> countActiveByUser(@PathVariable String userId) {
-        logLoadBalancedRequest("countActiveByUser", userId);
+    public ResponseEntity<ApiResponse<Long>> countActiveByUser(@PathVariable String userId) {
+        requestLogger.log("countActiveByUser", userId);
         Long count = service.countActiveEnrollmentsByUser(userId);
         return ResponseEntity.ok(createResponse(200, "Success", count));
     }
 
     @GetMapping("/count/active/course/{courseId}")
-    public ResponseEntity<Map<String, Object>> countActiveByCourse(@PathVariable String courseId) {
-        logLoadBalancedRequest("countActiveByCourse", courseId);
+    public ResponseEntity<ApiResponse<Long>> countActiveByCourse(@PathVariable String courseId) {
+        requestLogger.log("countActiveByCourse", courseId);
         Long count = service.countActiveEnrollmentsByCourse(courseId);
         return ResponseEntity.ok(createResponse(200, "Success", count));
     }
 
+    @GetMapping("/active/user/{userId}/courses")
+    public ResponseEntity<ApiResponse<List<String>>> activeCoursesByUser(@PathVariable String userId) {
+        requestLogger.log("activeCoursesByUser", userId);
+        List<String> courseIds = service.findActiveCourseIdsByUser(userId);
+        return ResponseEntity.ok(createResponse(200, "Success", courseIds));
+    }
+
+    @GetMapping("/active/course/{courseId}/users")
+    public ResponseEntity<ApiResponse<List<String>>> activeUsersByCourse(@PathVariable String courseId) {
+        requestLogger.log("activeUsersByCourse", courseId);
+        List<String> userIds = service.findActiveUserIdsByCourse(courseId);
+        return ResponseEntity.ok(createResponse(200, "Success", userIds));
+    }
+
     // ==================== 业务接口 ====================
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> enroll(@RequestBody Map<String, String> request) {
+    public ResponseEntity<ApiResponse<?>> enroll(@RequestBody Map<String, String> request) {
         String courseId = request.get("courseId");
         String userId = request.get("userId");
-        logLoadBalancedRequest("enroll", String.format("courseId=%s, userId=%s", courseId, userId));
+        requestLogger.log("enroll", String.format("courseId=%s, userId=%s", courseId, userId));
+
+        // 课程处于抽签模式：只记录报名，窗口关闭后由 LotteryAllocator 统一分配
+        if (lotteryService.isLotteryActive(courseId)) {
+            try {
+                LotteryEntryView entry = LotteryEntryView.from(lotteryService.submit(courseId, userId));
+                return ResponseEntity.status(202).body(createResponse(202, "已报名抽签，窗口关闭后统一分配", entry));
+            } catch (Exception e) {
+                logger.debug("抽签报名失败: {}", e.getMessage());
+                return ResponseEntity.status(400)
+                        .body(createResponse(400, "抽签报名失败: " + e.getMessage(), null));
+            }
+        }
 
         try {
             Enrollment result = service.enroll(courseId, userId);
             return ResponseEntity.status(201)
-                    .body(createResponse(201, "选课成功", result));
+                    .body(createResponse(201, "选课成功", EnrollmentView.from(result)));
         } catch (Exception e) {
             logger.error("选课失败", e);
-            return ResponseEntity.status(400)
-                    .body(createResponse(400, "选课失败: " + e.getMessage(), null));
+            int status = failureStatus(e);
+            return ResponseEntity.status(status)
+                    .body(createResponse(status, "选课失败: " + e.getMessage(), null));
         }
     }
 
     @PutMapping("/{id}/complete")
-    public ResponseEntity<Map<String, Object>> complete(@PathVariable Long id) {
-        logLoadBalancedRequest("complete", String.valueOf(id));
+    public ResponseEntity<ApiResponse<EnrollmentView>> complete(@PathVariable Long id) {
+        requestLogger.log("complete", String.valueOf(id));
         try {
             Enrollment result = service.complete(id);
-            return ResponseEntity.ok(createResponse(200, "课程完成", result));
+            return ResponseEntity.ok(createResponse(200, "课程完成", EnrollmentView.from(result)));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(createResponse(400, e.getMessage(), null));
@@ -437,46 +439,49 @@ public class EnrollmentController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> unenroll(@PathVariable Long id) {
-        logLoadBalancedRequest("unenroll", String.valueOf(id));
+    public ResponseEntity<ApiResponse<Void>> unenroll(@PathVariable Long id) {
+        requestLogger.log("unenroll", String.valueOf(id));
         try {
             service.unenroll(id);
             return ResponseEntity.ok(createResponse(200, "退课成功", null));
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(createResponse(400, e.getMessage(), null));
+            int status = failureStatus(e);
+            return ResponseEntity.status(status)
+                    .body(createResponse(status, e.getMessage(), null));
         }
     }
 
     @DeleteMapping("/drop")
-    public ResponseEntity<Map<String, Object>> dropByUserAndCourse(
+    public ResponseEntity<ApiResponse<EnrollmentView>> dropByUserAndCourse(
             @RequestParam String userId,
             @RequestParam String courseId) {
-        logLoadBalancedRequest("dropByUserAndCourse", String.format("userId=%s, courseId=%s", userId, courseId));
+        requestLogger.log("dropByUserAndCourse", String.format("userId=%s, courseId=%s", userId, courseId));
         try {
             Enrollment result = service.dropByUserAndCourse(userId, courseId);
-            return ResponseEntity.ok(createResponse(200, "退课成功", result));
+            return ResponseEntity.ok(createResponse(200, "退课成功", EnrollmentView.from(result)));
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(createResponse(400, e.getMessage(), null));
+            int status = failureStatus(e);
+            return ResponseEntity.status(status)
+                    .body(createResponse(status, e.getMessage(), null));
         }
     }
 
     @PostMapping("/{id}/drop")
-    public ResponseEntity<Map<String, Object>> drop(@PathVariable Long id) {
-        logLoadBalancedRequest("drop", String.valueOf(id));
+    public ResponseEntity<ApiResponse<EnrollmentView>> drop(@PathVariable Long id) {
+        requestLogger.log("drop", String.valueOf(id));
         try {
             Enrollment result = service.drop(id);
-            return ResponseEntity.ok(createResponse(200, "退课成功", result));
+            return ResponseEntity.ok(createResponse(200, "退课成功", EnrollmentView.from(result)));
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(createResponse(400, e.getMessage(), null));
+            int status = failureStatus(e);
+            return ResponseEntity.status(status)
+                    .body(createResponse(status, e.getMessage(), null));
         }
     }
 
     @DeleteMapping("/cancel/{id}")
-    public ResponseEntity<Map<String, Object>> cancel(@PathVariable Long id) {
-        logLoadBalancedRequest("cancel", String.valueOf(id));
+    public ResponseEntity<ApiResponse<Void>> cancel(@PathVariable Long id) {
+        requestLogger.log("cancel", String.valueOf(id));
         try {
             service.delete(id);
             return ResponseEntity.ok(createResponse(200, "取消成功", null));
@@ -489,13 +494,13 @@ public class EnrollmentController {
     // ==================== 辅助接口 ====================
 
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> healthCheck() {
-        logLoadBalancedRequest("healthCheck", "");
+    public ResponseEntity<ApiResponse<Map<String, Object>>> healthCheck() {
+        requestLogger.log("healthCheck", "");
 
         Map<String, Object> health = new HashMap<>();
         health.put("status", "UP");
         health.put("service", "enrollment-service");
-        health.put("instance", getInstanceInfo());
+        health.put("instance", instanceIdentity.describe());
         health.put("timestamp", System.currentTimeMillis());
         return ResponseEntity.ok(createResponse(200, "Service is running", health));
     }
@@ -0,0 +1,89 @@
+package com.zjsu.nsq.enrollment.controller;
+
+import com.zjsu.nsq.commons.web.ApiResponse;
+import com.zjsu.nsq.enrollment.dto.LotteryEntryView;
+import com.zjsu.nsq.enrollment.dto.LotteryWindowView;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.model.LotteryWindow;
+import com.zjsu.nsq.enrollment.service.LotteryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 抽签选课接口
+ * - 开启窗口后，窗口期内 POST /api/enrollments 只记录报名（返回 202）
+ * - 窗口关闭后统一分配，学生通过 GET /entries/course/{courseId}/user/{userId} 查询结果
+ */
+@RestController
+@RequestMapping("/api/enrollments/lottery")
+public class LotteryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotteryController.class);
+
+    private final LotteryService lotteryService;
+
+    public LotteryController(LotteryService lotteryService) {
+        this.lotteryService = lotteryService;
+    }
+
+    /**
+     * 开启抽签窗口：{"courseId": "1", "durationSeconds": 300, "opensAt": "2026-09-01T09:00:00"（可选，默认立即）}
+     */
+    @PostMapping("/windows")
+    public ResponseEntity<ApiResponse<LotteryWindowView>> openWindow(@RequestBody Map<String, String> request) {
+        try {
+            String courseId = request.get("courseId");
+            String opensAtValue = request.get("opensAt");
+            LocalDateTime opensAt = opensAtValue != null ? LocalDateTime.parse(opensAtValue) : LocalDateTime.now();
+            long durationSeconds = Long.parseLong(request.getOrDefault("durationSeconds", "0"));
+            LotteryWindow window = lotteryService.openWindow(courseId, opensAt, opensAt.plusSeconds(durationSeconds));
+            return ResponseEntity.status(201)
+                    .body(ApiResponse.of(201, "抽签窗口已开启", LotteryWindowView.from(window, 0)));
+        } catch (Exception e) {
+            logger.debug("开启抽签窗口失败: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "开启抽签窗口失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/windows/course/{courseId}")
+    public ResponseEntity<ApiResponse<LotteryWindowView>> latestWindow(@PathVariable String courseId) {
+        return lotteryService.latestWindow(courseId)
+                .map(window -> ResponseEntity.ok(ApiResponse.of(200, "Success",
+                        LotteryWindowView.from(window, lotteryService.countEntries(window.getId())))))
+                .orElseGet(() -> ResponseEntity.status(404)
+                        .body(ApiResponse.error(404, "课程[" + courseId + "]没有抽签窗口")));
+    }
+
+    @PostMapping("/entries")
+    public ResponseEntity<ApiResponse<LotteryEntryView>> submit(@RequestBody Map<String, String> request) {
+        try {
+            LotteryEntryView entry = LotteryEntryView.from(
+                    lotteryService.submit(request.get("courseId"), request.get("userId")));
+            return ResponseEntity.status(202).body(ApiResponse.of(202, "已报名抽签，窗口关闭后统一分配", entry));
+        } catch (Exception e) {
+            logger.debug("抽签报名失败: {}", e.getMessage());
+            // 与 EnrollmentController 一致：用户服务不可用返回 503，其余业务失败返回 400
+            int status = e instanceof ServiceUnavailableException ? 503 : 400;
+            return ResponseEntity.status(status).body(ApiResponse.error(status, "抽签报名失败: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/entries/course/{courseId}/user/{userId}")
+    public ResponseEntity<ApiResponse<LotteryEntryView>> entry(@PathVariable String courseId,
+                                                               @PathVariable String userId) {
+        return lotteryService.findEntry(courseId, userId)
+                .map(entry -> ResponseEntity.ok(ApiResponse.of(200, "Success", LotteryEntryView.from(entry))))
+                .orElseGet(() -> ResponseEntity.status(404)
+                        .body(ApiResponse.error(404, "未找到用户[" + userId + "]在课程[" + courseId + "]的抽签报名")));
+    }
+}
@@ -0,0 +1,78 @@
+package com.zjsu.nsq.enrollment.controller;
+
+import com.zjsu.nsq.commons.web.ApiResponse;
+import com.zjsu.nsq.enrollment.dto.EnrollmentView;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.service.LotteryService;
+import com.zjsu.nsq.enrollment.service.ReactiveEnrollmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应式选课接口（与 EnrollmentController 并行提供，请求 / 响应格式相同）
+ * 返回 Mono：Servlet 线程在下游调用发出后即释放，结果就绪后由 Spring MVC 异步写回，
+ * 一个实例能同时挂起的选课请求数不再受 Tomcat 工作线程数限制。
+ */
+@RestController
+@RequestMapping("/api/enrollments/rx")
+public class ReactiveEnrollmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveEnrollmentController.class);
+
+    // 抽签期间只接受 POST /api/enrollments 报名，不能从这里先到先得
+    private static final String LOTTERY_ACTIVE = "课程处于抽签选课窗口，请通过 POST /api/enrollments 报名";
+
+    private final ReactiveEnrollmentService service;
+    private final LotteryService lotteryService;
+
+    public ReactiveEnrollmentController(ReactiveEnrollmentService service, LotteryService lotteryService) {
+        this.service = service;
+        this.lotteryService = lotteryService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ApiResponse<EnrollmentView>>> enroll(@RequestBody Map<String, String> request) {
+        if (lotteryService.isLotteryActive(request.get("courseId"))) {
+            return Mono.just(ResponseEntity.status(409).body(ApiResponse.error(409, LOTTERY_ACTIVE)));
+        }
+        return service.enroll(request.get("courseId"), request.get("userId"))
+                .map(enrollment -> ResponseEntity.status(201)
+                        .body(ApiResponse.of(201, "选课成功", EnrollmentView.from(enrollment))))
+                .onErrorResume(e -> failure("选课失败: ", e));
+    }
+
+    @PostMapping("/{id}/drop")
+    public Mono<ResponseEntity<ApiResponse<EnrollmentView>>> drop(@PathVariable Long id) {
+        return service.drop(id)
+                .map(enrollment -> ResponseEntity.ok(ApiResponse.of(200, "退课成功", EnrollmentView.from(enrollment))))
+                .onErrorResume(e -> failure("", e));
+    }
+
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<ApiResponse<List<EnrollmentView>>>> getByUser(@PathVariable String userId) {
+        return service.findByUser(userId)
+                .map(enrollments -> ResponseEntity.ok(ApiResponse.of(200, "Success", EnrollmentView.fromAll(enrollments))));
+    }
+
+    /**
+     * 与 EnrollmentController 一致：业务失败返回 400；数据库排队已满 / 下游不可用返回 503
+     */
+    private static <T> Mono<ResponseEntity<ApiResponse<T>>> failure(String prefix, Throwable e) {
+        if (e instanceof ServiceUnavailableException) {
+            return Mono.just(ResponseEntity.status(503).body(ApiResponse.error(503, e.getMessage())));
+        }
+        logger.debug("响应式选课接口失败: {}", e.toString());
+        return Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(400, prefix + e.getMessage())));
+    }
+}
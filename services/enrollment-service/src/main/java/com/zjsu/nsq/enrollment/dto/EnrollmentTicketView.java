@@ -0,0 +1,34 @@
+package com.zjsu.nsq.enrollment.dto;
+
+import com.zjsu.nsq.enrollment.model.EnrollmentCommand;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommandStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步选课票据视图（轮询 / SSE 返回的结构）
+ * status 为 SUCCEEDED 时 enrollmentId 有值；FAILED 时 message 为失败原因
+ */
+public record EnrollmentTicketView(String ticket,
+                                   String courseId,
+                                   String userId,
+                                   EnrollmentCommandStatus status,
+                                   int attempts,
+                                   Long enrollmentId,
+                                   String message,
+                                   LocalDateTime createdAt,
+                                   LocalDateTime updatedAt) {
+
+    public static EnrollmentTicketView from(EnrollmentCommand command) {
+        return new EnrollmentTicketView(
+                command.getId(),
+                command.getCourseId(),
+                command.getUserId(),
+                command.getStatus(),
+                command.getAttempts(),
+                command.getEnrollmentId(),
+                command.getResultMessage(),
+                command.getCreatedAt(),
+                command.getUpdatedAt());
+    }
+}
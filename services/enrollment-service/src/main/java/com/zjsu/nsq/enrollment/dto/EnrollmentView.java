@@ -0,0 +1,37 @@
+package com.zjsu.nsq.enrollment.dto;
+
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 选课记录视图（接口返回结构与 Enrollment 实体字段一致）
+ */
+public record EnrollmentView(Long id,
+                             String courseId,
+                             String userId,
+                             EnrollmentStatus status,
+                             LocalDateTime enrolledAt,
+                             LocalDateTime updatedAt) {
+
+    public static EnrollmentView from(Enrollment enrollment) {
+        return new EnrollmentView(
+                enrollment.getId(),
+                enrollment.getCourseId(),
+                enrollment.getUserId(),
+                enrollment.getStatus(),
+                enrollment.getEnrolledAt(),
+                enrollment.getUpdatedAt());
+    }
+
+    public static List<EnrollmentView> fromAll(List<Enrollment> enrollments) {
+        List<EnrollmentView> views = new ArrayList<>(enrollments.size());
+        for (Enrollment enrollment : enrollments) {
+            views.add(from(enrollment));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,35 @@
+package com.zjsu.nsq.enrollment.dto;
+
+import com.zjsu.nsq.enrollment.model.LotteryEntry;
+import com.zjsu.nsq.enrollment.model.LotteryEntryStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 抽签报名视图：ADMITTED 时 enrollmentId 有值，WAITLISTED 时 waitlistPosition 有值
+ */
+public record LotteryEntryView(Long id,
+                               Long windowId,
+                               String courseId,
+                               String userId,
+                               LotteryEntryStatus status,
+                               Long enrollmentId,
+                               Integer waitlistPosition,
+                               String message,
+                               LocalDateTime submittedAt,
+                               LocalDateTime updatedAt) {
+
+    public static LotteryEntryView from(LotteryEntry entry) {
+        return new LotteryEntryView(
+                entry.getId(),
+                entry.getWindowId(),
+                entry.getCourseId(),
+                entry.getUserId(),
+                entry.getStatus(),
+                entry.getEnrollmentId(),
+                entry.getWaitlistPosition(),
+                entry.getResultMessage(),
+                entry.getSubmittedAt(),
+                entry.getUpdatedAt());
+    }
+}
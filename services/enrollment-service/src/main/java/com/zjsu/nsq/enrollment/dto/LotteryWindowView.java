@@ -0,0 +1,35 @@
+package com.zjsu.nsq.enrollment.dto;
+
+import com.zjsu.nsq.enrollment.model.LotteryWindow;
+import com.zjsu.nsq.enrollment.model.LotteryWindowStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 抽签窗口视图；admitted / waitlisted 在分配完成后才有值
+ */
+public record LotteryWindowView(Long id,
+                                String courseId,
+                                LotteryWindowStatus status,
+                                LocalDateTime opensAt,
+                                LocalDateTime closesAt,
+                                long entries,
+                                Integer admitted,
+                                Integer waitlisted,
+                                Long seed,
+                                LocalDateTime allocatedAt) {
+
+    public static LotteryWindowView from(LotteryWindow window, long entries) {
+        return new LotteryWindowView(
+                window.getId(),
+                window.getCourseId(),
+                window.getStatus(),
+                window.getOpensAt(),
+                window.getClosesAt(),
+                entries,
+                window.getAdmitted(),
+                window.getWaitlisted(),
+                window.getSeed(),
+                window.getAllocatedAt());
+    }
+}
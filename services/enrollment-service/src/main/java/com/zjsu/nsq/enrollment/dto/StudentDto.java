@@ -1,5 +1,6 @@
 package com.zjsu.nsq.enrollment.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -7,6 +8,9 @@ public class StudentDto {
     private Integer code;
     private String message;
     private Data data;
+    // 熔断降级时返回的缓存数据（不是下游的实时响应）
+    @JsonIgnore
+    private boolean stale;
 
     // 内部数据类
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -56,6 +60,10 @@ public class StudentDto {
     public Data getData() { return data; }
     public void setData(Data data) { this.data = data; }
 
+    @JsonIgnore
+    public boolean isStale() { return stale; }
+    public void setStale(boolean stale) { this.stale = stale; }
+
     public boolean isSuccess() {
         return code != null && code == 200;
     }
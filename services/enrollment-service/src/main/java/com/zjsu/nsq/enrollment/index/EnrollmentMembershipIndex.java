@@ -0,0 +1,266 @@
+package com.zjsu.nsq.enrollment.index;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 活跃选课关系的内存索引：课程 -> 用户，存成 RoaringBitmap
+ * - 启动时流式读取 ACTIVE 记录构建；此后由 EnrollmentMembershipListener 在每次提交后增量维护
+ * - 只用于选课时的重复检查：其他实例的写入不会推送过来（按 refresh-interval-seconds 定期全量重建），
+ *   各实例的索引最多落后一个重建周期，漏判由数据库唯一约束（course_id, user_id）兜底；
+ *   计数、列表、统计这类对外可见的结果不走索引
+ * - 只索引非负 int 范围内的数字 ID；索引未就绪或遇到无法索引的 ID 时调用方回退到数据库查询
+ */
+@Component
+public class EnrollmentMembershipIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentMembershipIndex.class);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long refreshIntervalSeconds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Integer, RoaringBitmap> usersByCourse = new HashMap<>();
+    private long memberships;
+    // 重建期间发生的变更，新索引构建完后重放
+    private List<Change> journal;
+
+    // 已完成至少一次构建
+    private volatile boolean ready;
+
+    private final Counter hits;
+    private final Counter fallbacks;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "enrollment-membership-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EnrollmentMembershipIndex(EnrollmentRepository enrollmentRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     PerfMetrics perfMetrics,
+                                     @Value("${enrollment.membership-index.enabled:true}") boolean enabled,
+                                     @Value("${enrollment.membership-index.refresh-interval-seconds:300}")
+                                     long refreshIntervalSeconds) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+
+        this.hits = perfMetrics.counter("enrollment.membership.lookup", Tags.of("result", "index"));
+        this.fallbacks = perfMetrics.counter("enrollment.membership.lookup", Tags.of("result", "database"));
+        Gauge.builder("enrollment.membership.index.size", this, EnrollmentMembershipIndex::size)
+                .description("内存索引中的活跃选课关系数")
+                .register(perfMetrics.registry());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("选课关系内存索引未启用（enrollment.membership-index.enabled=false）");
+            return;
+        }
+        // 在 Tomcat 开始接收请求之前完成首次构建
+        rebuild();
+        if (refreshIntervalSeconds > 0) {
+            refresher.scheduleWithFixedDelay(this::rebuild, refreshIntervalSeconds, refreshIntervalSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 该（课程, 用户）能否由索引回答；false 时调用方查数据库
+     */
+    public boolean covers(String courseId, String userId) {
+        boolean covered = ready && toKey(courseId) >= 0 && toKey(userId) >= 0;
+        (covered ? hits : fallbacks).increment();
+        return covered;
+    }
+
+    public boolean isActive(String courseId, String userId) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap users = usersByCourse.get(toKey(courseId));
+            return users != null && users.contains(toKey(userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return memberships;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== 增量维护（EnrollmentMembershipListener 在事务提交后调用） ====================
+
+    public void update(String courseId, String userId, boolean active) {
+        if (!enabled) {
+            return;
+        }
+        int course = toKey(courseId);
+        int user = toKey(userId);
+        lock.writeLock().lock();
+        try {
+            if (course < 0 || user < 0) {
+                // 无法索引的记录：重复检查对这类 ID 直接查库
+                return;
+            }
+            apply(new Change(course, user, active));
+            if (journal != null) {
+                journal.add(new Change(course, user, active));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== 全量构建 ====================
+
+    /**
+     * 流式读取全部活跃记录构建新索引，期间的增量变更记入 journal，构建完成后重放再替换
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Integer, RoaringBitmap> newUsersByCourse = new HashMap<>();
+        long skipped;
+        try {
+            skipped = readOnlyTransaction.execute(status -> {
+                long unindexable = 0;
+                try (Stream<Object[]> rows = enrollmentRepository.streamMemberships(EnrollmentStatus.ACTIVE)) {
+                    for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                        int course = toKey((String) row[0]);
+                        int user = toKey((String) row[1]);
+                        if (course < 0 || user < 0) {
+                            unindexable++;
+                            continue;
+                        }
+                        newUsersByCourse.computeIfAbsent(course, key -> new RoaringBitmap()).add(user);
+                    }
+                }
+                return unindexable;
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("❌ 选课关系索引构建失败，查询回退数据库: {}", e.getMessage());
+            return;
+        }
+        newUsersByCourse.values().forEach(RoaringBitmap::runOptimize);
+
+        lock.writeLock().lock();
+        try {
+            usersByCourse = newUsersByCourse;
+            memberships = 0;
+            for (RoaringBitmap users : newUsersByCourse.values()) {
+                memberships += users.getLongCardinality();
+            }
+            for (Change change : journal) {
+                apply(change);
+            }
+            journal = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("选课关系索引已构建 - 活跃关系: {}, 课程: {}, 未索引（非数字 ID）: {}, 耗时: {}ms",
+                size(), newUsersByCourse.size(), skipped,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // ==================== 内部方法 ====================
+
+    // 调用方持有写锁
+    private void apply(Change change) {
+        if (change.active()) {
+            if (usersByCourse.computeIfAbsent(change.course(), key -> new RoaringBitmap()).checkedAdd(change.user())) {
+                memberships++;
+            }
+        } else {
+            if (remove(usersByCourse, change.course(), change.user())) {
+                memberships--;
+            }
+        }
+    }
+
+    private static boolean remove(Map<Integer, RoaringBitmap> index, int key, int value) {
+        RoaringBitmap bitmap = index.get(key);
+        if (bitmap == null || !bitmap.checkedRemove(value)) {
+            return false;
+        }
+        if (bitmap.isEmpty()) {
+            index.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * 规范的非负 int 数字 ID 转成位图下标；其他情况（空、非数字、前导零、超出 int）返回 -1
+     * 前导零的 ID 与去掉前导零后在数据库里是两条不同的字符串，不能映射到同一个下标
+     */
+    static int toKey(String id) {
+        if (id == null || id.isEmpty() || id.length() > 10 || (id.length() > 1 && id.charAt(0) == '0')) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+
+    private record Change(int course, int user, boolean active) {
+    }
+}
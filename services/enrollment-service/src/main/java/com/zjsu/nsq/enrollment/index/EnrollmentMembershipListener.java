@@ -0,0 +1,62 @@
+package com.zjsu.nsq.enrollment.index;
+
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Enrollment 的 JPA 生命周期回调：插入、状态变更、删除都同步到 EnrollmentMembershipIndex
+ * 由 Hibernate 通过 Spring 容器创建（SpringBeanContainer）；创建时 EntityManagerFactory 还在初始化，
+ * 索引依赖 EnrollmentRepository，所以用 ObjectProvider 延迟到回调时再取
+ * 变更在事务提交后才写入索引；回滚的事务（包括组提交失败的批次）不会留下脏数据
+ */
+public class EnrollmentMembershipListener {
+
+    private final ObjectProvider<EnrollmentMembershipIndex> index;
+
+    public EnrollmentMembershipListener(ObjectProvider<EnrollmentMembershipIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Enrollment enrollment) {
+        // 回调时先取出字段值，提交前实体可能还会被修改
+        String courseId = enrollment.getCourseId();
+        String userId = enrollment.getUserId();
+        boolean active = enrollment.getStatus() == EnrollmentStatus.ACTIVE;
+        afterCommit(() -> update(courseId, userId, active));
+    }
+
+    @PostRemove
+    public void onRemoved(Enrollment enrollment) {
+        String courseId = enrollment.getCourseId();
+        String userId = enrollment.getUserId();
+        afterCommit(() -> update(courseId, userId, false));
+    }
+
+    private void update(String courseId, String userId, boolean active) {
+        EnrollmentMembershipIndex membershipIndex = index.getIfAvailable();
+        if (membershipIndex != null) {
+            membershipIndex.update(courseId, userId, active);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.zjsu.nsq.enrollment.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.util.function.Supplier;
+
+/**
+ * 选课流程各阶段的 JFR 事件
+ * 没有 JFR 录制时 begin/commit 几乎没有开销，可以常驻在生产代码里；
+ * 通过 /actuator/jfr 开启有界录制后，在 JMC 中按 operation / stage 分组即可看到每个阶段的耗时分布。
+ */
+@Name(EnrollmentStageEvent.NAME)
+@Label("Enrollment Stage")
+@Category({"NSQ", "Enrollment"})
+@Description("EnrollmentService 中 enroll / drop / unenroll 的单个阶段")
+@StackTrace(false)
+@Enabled(true)
+@Threshold("0 ms")
+public class EnrollmentStageEvent extends Event {
+
+    public static final String NAME = "com.zjsu.nsq.enrollment.Stage";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Course Id")
+    String courseId;
+
+    @Label("User Id")
+    String userId;
+
+    @Label("Enrollment Id")
+    long enrollmentId;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * 记录一个有返回值的阶段
+     */
+    public static <T> T record(String operation, String stage, String courseId, String userId,
+                               Long enrollmentId, Supplier<T> work) {
+        EnrollmentStageEvent event = new EnrollmentStageEvent();
+        if (!event.isEnabled()) {
+            return work.get();
+        }
+        event.operation = operation;
+        event.stage = stage;
+        event.courseId = courseId;
+        event.userId = userId;
+        event.enrollmentId = enrollmentId != null ? enrollmentId : 0;
+        event.begin();
+        try {
+            T result = work.get();
+            event.succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * 记录一个没有返回值的阶段
+     */
+    public static void run(String operation, String stage, String courseId, String userId,
+                           Long enrollmentId, Runnable work) {
+        record(operation, stage, courseId, userId, enrollmentId, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
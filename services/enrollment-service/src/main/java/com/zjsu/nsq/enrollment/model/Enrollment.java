@@ -1,9 +1,11 @@
 package com.zjsu.nsq.enrollment.model;
 
+import com.zjsu.nsq.enrollment.index.EnrollmentMembershipListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(EnrollmentMembershipListener.class)
 @Table(name = "enrollments",
         uniqueConstraints = @UniqueConstraint(columnNames = {"course_id", "user_id"}))
 public class Enrollment {
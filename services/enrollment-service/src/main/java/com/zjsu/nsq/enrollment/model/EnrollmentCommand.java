@@ -0,0 +1,90 @@
+package com.zjsu.nsq.enrollment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 异步选课命令（本地队列表）
+ * POST /api/enrollments/async 只写入一行 PENDING 并返回 202 + ticket，
+ * EnrollmentCommandWorker 按课程分组批量处理，结果写回同一行供轮询 / SSE 读取。
+ */
+@Entity
+@Table(name = "enrollment_commands",
+        indexes = @Index(name = "idx_enrollment_commands_status", columnList = "status, created_at"))
+public class EnrollmentCommand {
+
+    // ticket：对外暴露的 UUID
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EnrollmentCommandStatus status;
+
+    // 已处理次数（下游暂时不可用时退回 PENDING 重试）
+    @Column(nullable = false)
+    private int attempts;
+
+    // 重试退避：早于该时间不会被再次认领（首次处理为空）
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "enrollment_id")
+    private Long enrollmentId;
+
+    @Column(name = "result_message", length = 500)
+    private String resultMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void preInsert() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (status == null) status = EnrollmentCommandStatus.PENDING;
+    }
+
+    @PreUpdate
+    protected void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // getters / setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getCourseId() { return courseId; }
+    public void setCourseId(String courseId) { this.courseId = courseId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public EnrollmentCommandStatus getStatus() { return status; }
+    public void setStatus(EnrollmentCommandStatus status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public Long getEnrollmentId() { return enrollmentId; }
+    public void setEnrollmentId(Long enrollmentId) { this.enrollmentId = enrollmentId; }
+
+    public String getResultMessage() { return resultMessage; }
+    public void setResultMessage(String resultMessage) { this.resultMessage = resultMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -0,0 +1,12 @@
+package com.zjsu.nsq.enrollment.model;
+
+public enum EnrollmentCommandStatus {
+    PENDING,
+    PROCESSING,
+    SUCCEEDED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
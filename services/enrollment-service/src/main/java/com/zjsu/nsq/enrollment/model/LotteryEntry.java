@@ -0,0 +1,87 @@
+package com.zjsu.nsq.enrollment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 抽签窗口内的一次报名；同一窗口同一学生只有一条（重复提交返回原记录）
+ */
+@Entity
+@Table(name = "enrollment_lottery_entries",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"window_id", "user_id"}),
+        indexes = @Index(name = "idx_lottery_entries_window", columnList = "window_id, status"))
+public class LotteryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "window_id", nullable = false)
+    private Long windowId;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private LotteryEntryStatus status;
+
+    // 中签后创建的选课记录
+    @Column(name = "enrollment_id")
+    private Long enrollmentId;
+
+    // 候补序号（从 1 开始）
+    @Column(name = "waitlist_position")
+    private Integer waitlistPosition;
+
+    @Column(name = "result_message", length = 500)
+    private String resultMessage;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void preInsert() {
+        submittedAt = LocalDateTime.now();
+        updatedAt = submittedAt;
+        if (status == null) status = LotteryEntryStatus.PENDING;
+    }
+
+    @PreUpdate
+    protected void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // getters / setters
+    public Long getId() { return id; }
+
+    public Long getWindowId() { return windowId; }
+    public void setWindowId(Long windowId) { this.windowId = windowId; }
+
+    public String getCourseId() { return courseId; }
+    public void setCourseId(String courseId) { this.courseId = courseId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public LotteryEntryStatus getStatus() { return status; }
+    public void setStatus(LotteryEntryStatus status) { this.status = status; }
+
+    public Long getEnrollmentId() { return enrollmentId; }
+    public void setEnrollmentId(Long enrollmentId) { this.enrollmentId = enrollmentId; }
+
+    public Integer getWaitlistPosition() { return waitlistPosition; }
+    public void setWaitlistPosition(Integer waitlistPosition) { this.waitlistPosition = waitlistPosition; }
+
+    public String getResultMessage() { return resultMessage; }
+    public void setResultMessage(String resultMessage) { this.resultMessage = resultMessage; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
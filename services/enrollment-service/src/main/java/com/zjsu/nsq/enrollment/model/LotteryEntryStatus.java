@@ -0,0 +1,8 @@
+package com.zjsu.nsq.enrollment.model;
+
+public enum LotteryEntryStatus {
+    PENDING,     // 已报名，等待抽签
+    ADMITTED,    // 中签，已创建选课记录
+    WAITLISTED,  // 未中签，按 waitlistPosition 排队
+    REJECTED     // 无效报名（已选过该课程等）
+}
@@ -0,0 +1,106 @@
+package com.zjsu.nsq.enrollment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 课程的抽签选课窗口
+ * 窗口内 POST /api/enrollments 只记录报名（LotteryEntry），closesAt 之后由 LotteryAllocator
+ * 一次性打乱报名顺序，按剩余容量录取，其余进入候补。
+ */
+@Entity
+@Table(name = "enrollment_lottery_windows",
+        uniqueConstraints = @UniqueConstraint(columnNames = "open_course_id"),
+        indexes = @Index(name = "idx_lottery_windows_course", columnList = "course_id, status"))
+public class LotteryWindow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private LotteryWindowStatus status;
+
+    // 未分配完成时等于 course_id，分配完成后置空：唯一约束保证同一课程最多一个未分配完成的窗口
+    @Column(name = "open_course_id")
+    private String openCourseId;
+
+    @Column(name = "opens_at", nullable = false)
+    private LocalDateTime opensAt;
+
+    @Column(name = "closes_at", nullable = false)
+    private LocalDateTime closesAt;
+
+    // 打乱报名顺序使用的随机种子，便于事后复核分配结果
+    @Column(name = "seed")
+    private Long seed;
+
+    @Column(name = "admitted")
+    private Integer admitted;
+
+    @Column(name = "waitlisted")
+    private Integer waitlisted;
+
+    // 被某个实例认领分配的时间（实例崩溃后超时重新放回 OPEN）
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "allocated_at")
+    private LocalDateTime allocatedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void preInsert() {
+        createdAt = LocalDateTime.now();
+        if (status == null) status = LotteryWindowStatus.OPEN;
+        if (status != LotteryWindowStatus.ALLOCATED) openCourseId = courseId;
+    }
+
+    // getters / setters
+    public Long getId() { return id; }
+
+    public String getCourseId() { return courseId; }
+    public void setCourseId(String courseId) { this.courseId = courseId; }
+
+    public LotteryWindowStatus getStatus() { return status; }
+    public void setStatus(LotteryWindowStatus status) {
+        this.status = status;
+        // 分配完成后释放唯一约束，课程可以开下一个窗口
+        if (status == LotteryWindowStatus.ALLOCATED) openCourseId = null;
+    }
+
+    public LocalDateTime getOpensAt() { return opensAt; }
+    public void setOpensAt(LocalDateTime opensAt) { this.opensAt = opensAt; }
+
+    public LocalDateTime getClosesAt() { return closesAt; }
+    public void setClosesAt(LocalDateTime closesAt) { this.closesAt = closesAt; }
+
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+
+    public Integer getAdmitted() { return admitted; }
+    public void setAdmitted(Integer admitted) { this.admitted = admitted; }
+
+    public Integer getWaitlisted() { return waitlisted; }
+    public void setWaitlisted(Integer waitlisted) { this.waitlisted = waitlisted; }
+
+    public LocalDateTime getClaimedAt() { return claimedAt; }
+
+    public LocalDateTime getAllocatedAt() { return allocatedAt; }
+    public void setAllocatedAt(LocalDateTime allocatedAt) { this.allocatedAt = allocatedAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    /**
+     * 报名是否仍在进行（尚未到关闭时间）
+     */
+    public boolean isAcceptingEntries(LocalDateTime now) {
+        return status == LotteryWindowStatus.OPEN && !now.isBefore(opensAt) && now.isBefore(closesAt);
+    }
+}
@@ -0,0 +1,7 @@
+package com.zjsu.nsq.enrollment.model;
+
+public enum LotteryWindowStatus {
+    OPEN,        // 接受报名（closesAt 之后不再接受，等待分配）
+    ALLOCATING,  // 某个实例正在分配
+    ALLOCATED    // 已分配完成，课程恢复先到先得
+}
@@ -0,0 +1,50 @@
+package com.zjsu.nsq.enrollment.repository;
+
+import com.zjsu.nsq.enrollment.model.EnrollmentCommand;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommandStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EnrollmentCommandRepository extends JpaRepository<EnrollmentCommand, String> {
+
+    // 最早的可处理命令 ID（每轮取一批；重试中的命令等到 nextAttemptAt 之后）
+    @Query("SELECT c.id FROM EnrollmentCommand c WHERE c.status = :status " +
+            "AND (c.nextAttemptAt IS NULL OR c.nextAttemptAt <= :now) ORDER BY c.createdAt")
+    List<String> findReadyIds(@Param("status") EnrollmentCommandStatus status,
+                              @Param("now") LocalDateTime now,
+                              Pageable page);
+
+    // 认领：from -> to（PENDING -> PROCESSING），多实例并发认领同一条时只有一个能成功
+    @Transactional
+    @Modifying
+    @Query("UPDATE EnrollmentCommand c SET c.status = :to, c.attempts = c.attempts + 1, c.updatedAt = :now " +
+            "WHERE c.id = :id AND c.status = :from")
+    int claim(@Param("id") String id,
+              @Param("from") EnrollmentCommandStatus from,
+              @Param("to") EnrollmentCommandStatus to,
+              @Param("now") LocalDateTime now);
+
+    // 实例崩溃后遗留的 PROCESSING 命令重新放回队列（from=PROCESSING, to=PENDING）
+    @Transactional
+    @Modifying
+    @Query("UPDATE EnrollmentCommand c SET c.status = :to, c.updatedAt = :now " +
+            "WHERE c.status = :from AND c.updatedAt < :before")
+    int requeueStale(@Param("from") EnrollmentCommandStatus from,
+                     @Param("to") EnrollmentCommandStatus to,
+                     @Param("before") LocalDateTime before,
+                     @Param("now") LocalDateTime now);
+
+    List<EnrollmentCommand> findByIdIn(Collection<String> ids);
+
+    long countByStatus(EnrollmentCommandStatus status);
+}
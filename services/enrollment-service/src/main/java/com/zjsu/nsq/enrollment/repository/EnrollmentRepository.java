@@ -2,13 +2,17 @@ package com.zjsu.nsq.enrollment.repository;
 
 import com.zjsu.nsq.enrollment.model.Enrollment;
 import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
@@ -51,4 +55,14 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     // 查询课程的所有活跃用户ID
     @Query("SELECT DISTINCT e.userId FROM Enrollment e WHERE e.courseId = :courseId AND e.status = 'ACTIVE'")
     List<String> findActiveUserIdsByCourse(@Param("courseId") String courseId);
-}
\ No newline at end of file
+
+    // 课程下所有选课记录的用户ID（含已退课；唯一约束不区分状态，抽签分配前据此排除）
+    @Query("SELECT e.userId FROM Enrollment e WHERE e.courseId = :courseId")
+    List<String> findUserIdsByCourse(@Param("courseId") String courseId);
+
+    // 按状态流式读取（课程ID, 用户ID），启动时构建 EnrollmentMembershipIndex；需在事务内消费并关闭
+    // MySQL 需在连接串加 useCursorFetch=true 才按 fetchSize 分批拉取，否则驱动会一次读完结果集
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.courseId, e.userId FROM Enrollment e WHERE e.status = :status")
+    Stream<Object[]> streamMemberships(@Param("status") EnrollmentStatus status);
+}
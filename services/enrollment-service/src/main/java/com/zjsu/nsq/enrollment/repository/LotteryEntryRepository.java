@@ -0,0 +1,24 @@
+package com.zjsu.nsq.enrollment.repository;
+
+import com.zjsu.nsq.enrollment.model.LotteryEntry;
+import com.zjsu.nsq.enrollment.model.LotteryEntryStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LotteryEntryRepository extends JpaRepository<LotteryEntry, Long> {
+
+    // 同一窗口同一学生的报名
+    Optional<LotteryEntry> findByWindowIdAndUserId(Long windowId, String userId);
+
+    // 课程下某个学生最近一次报名
+    Optional<LotteryEntry> findFirstByCourseIdAndUserIdOrderByIdDesc(String courseId, String userId);
+
+    // 窗口内待分配的报名
+    List<LotteryEntry> findByWindowIdAndStatus(Long windowId, LotteryEntryStatus status);
+
+    long countByWindowId(Long windowId);
+}
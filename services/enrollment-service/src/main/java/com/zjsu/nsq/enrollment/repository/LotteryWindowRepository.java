@@ -0,0 +1,53 @@
+package com.zjsu.nsq.enrollment.repository;
+
+import com.zjsu.nsq.enrollment.model.LotteryWindow;
+import com.zjsu.nsq.enrollment.model.LotteryWindowStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LotteryWindowRepository extends JpaRepository<LotteryWindow, Long> {
+
+    // 尚未分配完成的窗口（每个实例缓存一份，判断课程是否处于抽签模式）
+    List<LotteryWindow> findByStatusNot(LotteryWindowStatus status);
+
+    // 课程最近一个窗口
+    Optional<LotteryWindow> findFirstByCourseIdOrderByIdDesc(String courseId);
+
+    // 已到关闭时间、等待分配的窗口
+    @Query("SELECT w FROM LotteryWindow w WHERE w.status = :status AND w.closesAt <= :now ORDER BY w.closesAt")
+    List<LotteryWindow> findDue(@Param("status") LotteryWindowStatus status, @Param("now") LocalDateTime now);
+
+    // 认领分配：OPEN -> ALLOCATING，多实例只有一个能认领成功
+    @Transactional
+    @Modifying
+    @Query("UPDATE LotteryWindow w SET w.status = :to, w.claimedAt = :now WHERE w.id = :id AND w.status = :from")
+    int claim(@Param("id") Long id,
+              @Param("from") LotteryWindowStatus from,
+              @Param("to") LotteryWindowStatus to,
+              @Param("now") LocalDateTime now);
+
+    // 分配失败：ALLOCATING -> OPEN，下一轮重新分配
+    @Transactional
+    @Modifying
+    @Query("UPDATE LotteryWindow w SET w.status = :to WHERE w.id = :id AND w.status = :from")
+    int release(@Param("id") Long id,
+                @Param("from") LotteryWindowStatus from,
+                @Param("to") LotteryWindowStatus to);
+
+    // 实例崩溃遗留的 ALLOCATING 窗口超时后放回 OPEN
+    @Transactional
+    @Modifying
+    @Query("UPDATE LotteryWindow w SET w.status = :to WHERE w.status = :from AND w.claimedAt < :before")
+    int releaseStale(@Param("from") LotteryWindowStatus from,
+                     @Param("to") LotteryWindowStatus to,
+                     @Param("before") LocalDateTime before);
+}
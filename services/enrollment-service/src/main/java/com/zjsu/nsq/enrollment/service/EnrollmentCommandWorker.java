@@ -0,0 +1,405 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommand;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommandStatus;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentCommandRepository;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import com.zjsu.nsq.enrollment.service.EnrollmentService.BatchEnrollResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步选课命令处理器
+ * - 轮询线程每隔 poll-interval-ms 取一批 PENDING 命令，逐条 CAS 认领为 PROCESSING（多实例共享同一张表）
+ * - 认领到的命令按课程分组，每组交给工作线程调用 EnrollmentService.enrollBatch：
+ *   同一门课的一批学生只查一次课程、只回写一次人数
+ * - 同一课程同时只处理一组：课程已有批次在处理时，新认领的命令挂到该课程的积压上，
+ *   由同一个工作线程在当前批次完成后接着处理（否则两组会基于同一个已选人数各自录取，超出容量）
+ * - 工作线程全忙时轮询线程阻塞在信号量上，不再认领新命令，积压留在表里
+ * - 下游暂时不可用的命令退回 PENDING 并退避重试，超过 max-attempts 记为 FAILED
+ * - 实例崩溃遗留的 PROCESSING 命令超过 stale-processing-seconds 后重新入队；
+ *   重试的命令如果已有对应的 ACTIVE 选课（上次插入已提交、结果没写回），直接记为成功
+ * - 等待中的命令数由轮询线程每隔 pending-sample-ms 统计一次，指标抓取不查库
+ */
+@Component
+public class EnrollmentCommandWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentCommandWorker.class);
+
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final EnrollmentCommandRepository commandRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentService enrollmentService;
+    private final EnrollmentTicketNotifier notifier;
+    private final LotteryService lotteryService;
+
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long staleProcessingSeconds;
+    private final long pendingSampleMs;
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter retried;
+
+    private final Semaphore inFlightGroups;
+    private final ScheduledExecutorService poller;
+    private final ExecutorService workerPool;
+    private volatile long lastRequeueAt;
+    // 课程ID -> 等当前批次完成后再处理的命令；key 存在表示该课程有批次在处理
+    private final Map<String, CourseBacklog> busyCourses = new ConcurrentHashMap<>();
+    private volatile long lastPendingSampleAt;
+    private final AtomicLong pendingCommands = new AtomicLong();
+
+    public EnrollmentCommandWorker(EnrollmentCommandRepository commandRepository,
+                                   EnrollmentRepository enrollmentRepository,
+                                   EnrollmentService enrollmentService,
+                                   EnrollmentTicketNotifier notifier,
+                                   LotteryService lotteryService,
+                                   PerfMetrics perfMetrics,
+                                   @Value("${enrollment.async.enabled:true}") boolean enabled,
+                                   @Value("${enrollment.async.workers:4}") int workers,
+                                   @Value("${enrollment.async.batch-size:200}") int batchSize,
+                                   @Value("${enrollment.async.poll-interval-ms:50}") long pollIntervalMs,
+                                   @Value("${enrollment.async.max-attempts:5}") int maxAttempts,
+                                   @Value("${enrollment.async.retry-backoff-ms:500}") long retryBackoffMs,
+                                   @Value("${enrollment.async.stale-processing-seconds:60}") long staleProcessingSeconds,
+                                   @Value("${enrollment.async.pending-sample-ms:5000}") long pendingSampleMs) {
+        this.commandRepository = commandRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.enrollmentService = enrollmentService;
+        this.notifier = notifier;
+        this.lotteryService = lotteryService;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.staleProcessingSeconds = staleProcessingSeconds;
+        this.pendingSampleMs = pendingSampleMs;
+
+        this.succeeded = perfMetrics.counter("enrollment.async.commands", Tags.of("result", "succeeded"));
+        this.failed = perfMetrics.counter("enrollment.async.commands", Tags.of("result", "failed"));
+        this.retried = perfMetrics.counter("enrollment.async.commands", Tags.of("result", "retried"));
+        Gauge.builder("enrollment.async.pending", pendingCommands, AtomicLong::get)
+                .description("异步选课队列中等待处理的命令数（轮询线程定期采样）")
+                .register(perfMetrics.registry());
+
+        // 每个工作线程最多再排队一组，其余积压留在数据库里
+        this.inFlightGroups = new Semaphore(workers * 2);
+        this.poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("enrollment-command-poller"));
+        this.workerPool = Executors.newFixedThreadPool(workers, daemonThreads("enrollment-command-worker"));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("异步选课处理器未启用（enrollment.async.enabled=false）");
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("异步选课处理器已启动 - workers: {}, batchSize: {}, pollIntervalMs: {}",
+                workers, batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 未处理完的 PROCESSING 命令由其他实例（或重启后）按 stale-processing-seconds 重新入队
+        poller.shutdownNow();
+        workerPool.shutdown();
+        try {
+            workerPool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== 轮询 / 认领 ====================
+
+    // 包内可见：单元测试直接驱动一轮轮询
+    void poll() {
+        try {
+            requeueStaleIfDue();
+            samplePendingIfDue();
+            List<EnrollmentCommand> claimed = claimBatch();
+            if (claimed.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, List<EnrollmentCommand>> group : groupByCourse(claimed).entrySet()) {
+                String courseId = group.getKey();
+                // 挂到积压上的组同样占一个名额，直到被处理：内存里的命令数仍然有上限
+                inFlightGroups.acquire();
+                if (holdIfBusy(courseId, group.getValue())) {
+                    continue;
+                }
+                try {
+                    workerPool.execute(() -> drain(courseId, group.getValue()));
+                } catch (RuntimeException e) {
+                    abandon(courseId, 1);
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // 轮询线程不能因单次异常退出（scheduleWithFixedDelay 遇到异常会停止后续调度）
+            log.error("❌ 异步选课轮询失败: {}", e.getMessage());
+        }
+    }
+
+    private List<EnrollmentCommand> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> ids = commandRepository.findReadyIds(EnrollmentCommandStatus.PENDING, now,
+                PageRequest.of(0, batchSize));
+        List<String> claimed = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (commandRepository.claim(id, EnrollmentCommandStatus.PENDING,
+                    EnrollmentCommandStatus.PROCESSING, now) == 1) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+        List<EnrollmentCommand> commands = new ArrayList<>(commandRepository.findByIdIn(claimed));
+        commands.sort(Comparator.comparing(EnrollmentCommand::getCreatedAt));
+        return commands;
+    }
+
+    private void requeueStaleIfDue() {
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - lastRequeueAt < TimeUnit.SECONDS.toMillis(staleProcessingSeconds) / 2) {
+            return;
+        }
+        lastRequeueAt = nowMillis;
+        LocalDateTime now = LocalDateTime.now();
+        int requeued = commandRepository.requeueStale(EnrollmentCommandStatus.PROCESSING,
+                EnrollmentCommandStatus.PENDING, now.minusSeconds(staleProcessingSeconds), now);
+        if (requeued > 0) {
+            log.warn("⚠️ {} 条异步选课命令处理超时，已重新入队", requeued);
+        }
+    }
+
+    private void samplePendingIfDue() {
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - lastPendingSampleAt < pendingSampleMs) {
+            return;
+        }
+        lastPendingSampleAt = nowMillis;
+        pendingCommands.set(commandRepository.countByStatus(EnrollmentCommandStatus.PENDING));
+    }
+
+    // 保持先到先处理：组按第一条命令的先后排列，组内按提交时间排列
+    private static Map<String, List<EnrollmentCommand>> groupByCourse(List<EnrollmentCommand> commands) {
+        Map<String, List<EnrollmentCommand>> groups = new LinkedHashMap<>();
+        for (EnrollmentCommand command : commands) {
+            groups.computeIfAbsent(command.getCourseId(), key -> new ArrayList<>()).add(command);
+        }
+        return groups;
+    }
+
+    // ==================== 同一课程串行处理 ====================
+
+    // 课程已有批次在处理时把命令挂到积压上并返回 true；否则标记课程为处理中并返回 false
+    private boolean holdIfBusy(String courseId, List<EnrollmentCommand> commands) {
+        boolean[] held = new boolean[1];
+        busyCourses.compute(courseId, (key, backlog) -> {
+            if (backlog == null) {
+                return new CourseBacklog();
+            }
+            backlog.commands.addAll(commands);
+            backlog.permits++;
+            held[0] = true;
+            return backlog;
+        });
+        return held[0];
+    }
+
+    // 处理一组命令，再依次处理期间积压的命令，直到该课程没有积压
+    private void drain(String courseId, List<EnrollmentCommand> commands) {
+        List<EnrollmentCommand> next = commands;
+        int permits = 1;
+        try {
+            while (next != null) {
+                process(courseId, next);
+                inFlightGroups.release(permits);
+                permits = 0;
+                CourseBacklog backlog = takeBacklog(courseId);
+                if (backlog != null) {
+                    next = backlog.commands;
+                    permits = backlog.permits;
+                } else {
+                    next = null;
+                }
+            }
+        } catch (RuntimeException e) {
+            // 积压的命令保持 PROCESSING，超过 stale-processing-seconds 后重新入队
+            log.error("❌ 异步选课处理失败 - courseId: {}, error: {}", courseId, e.getMessage());
+            abandon(courseId, permits);
+        }
+    }
+
+    // 取走积压（课程仍标记为处理中）；没有积压时解除处理中标记并返回 null
+    private CourseBacklog takeBacklog(String courseId) {
+        CourseBacklog[] taken = new CourseBacklog[1];
+        busyCourses.compute(courseId, (key, backlog) -> {
+            if (backlog == null || backlog.commands.isEmpty()) {
+                return null;
+            }
+            taken[0] = backlog;
+            return new CourseBacklog();
+        });
+        return taken[0];
+    }
+
+    private void abandon(String courseId, int permits) {
+        CourseBacklog backlog = busyCourses.remove(courseId);
+        inFlightGroups.release(permits + (backlog != null ? backlog.permits : 0));
+    }
+
+    private static final class CourseBacklog {
+        private final List<EnrollmentCommand> commands = new ArrayList<>();
+        private int permits;
+    }
+
+    // ==================== 处理一组命令 ====================
+
+    private void process(String courseId, List<EnrollmentCommand> commands) {
+        LocalDateTime retryAt = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(retryBackoffMs));
+
+        // 重试的命令：上次的选课可能已提交而命令状态没写回，这种情况直接记为成功，不再走重复检查
+        List<EnrollmentCommand> remaining = new ArrayList<>(commands.size());
+        for (EnrollmentCommand command : commands) {
+            Enrollment committed = command.getAttempts() > 1 ? findCommitted(command) : null;
+            if (committed != null) {
+                apply(command, BatchEnrollResult.succeeded(committed), retryAt);
+            } else {
+                remaining.add(command);
+            }
+        }
+
+        if (!remaining.isEmpty()) {
+            List<BatchEnrollResult> results = enroll(courseId, remaining);
+            for (int i = 0; i < remaining.size(); i++) {
+                apply(remaining.get(i), results.get(i), retryAt);
+            }
+        }
+
+        try {
+            commandRepository.saveAll(commands);
+        } catch (RuntimeException e) {
+            // 结果没写回：命令保持 PROCESSING，超时后重新入队（已提交的选课在重试时直接记为成功）
+            log.error("❌ 异步选课结果写回失败 - courseId: {}, error: {}", courseId, e.getMessage());
+            return;
+        }
+        commands.forEach(notifier::publish);
+    }
+
+    private List<BatchEnrollResult> enroll(String courseId, List<EnrollmentCommand> commands) {
+        List<String> userIds = new ArrayList<>(commands.size());
+        for (EnrollmentCommand command : commands) {
+            userIds.add(command.getUserId());
+        }
+        try {
+            if (lotteryService.isLotteryActive(courseId)) {
+                // 排队期间课程开启了抽签：不能绕过窗口先到先得
+                return uniform(commands.size(), new BatchEnrollResult(null,
+                        "课程处于抽签选课窗口，请通过 POST /api/enrollments 报名", false));
+            }
+            return enrollmentService.enrollBatch(courseId, userIds);
+        } catch (IllegalArgumentException e) {
+            return uniform(commands.size(), new BatchEnrollResult(null, e.getMessage(), false));
+        } catch (RuntimeException e) {
+            // 课程服务不可用等：整组稍后重试
+            log.warn("⚠️ 异步选课批次处理失败，稍后重试 - courseId: {}, 命令数: {}, error: {}",
+                    courseId, commands.size(), e.getMessage());
+            return uniform(commands.size(), new BatchEnrollResult(null, e.getMessage(), true));
+        }
+    }
+
+    private Enrollment findCommitted(EnrollmentCommand command) {
+        try {
+            return enrollmentRepository.findByCourseIdAndUserIdAndStatus(command.getCourseId(), command.getUserId(),
+                    EnrollmentStatus.ACTIVE).orElse(null);
+        } catch (RuntimeException e) {
+            // 查不到就按普通命令处理，重复检查会给出结果
+            log.warn("⚠️ 查询已提交的选课失败 - commandId: {}, error: {}", command.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void apply(EnrollmentCommand command, BatchEnrollResult result, LocalDateTime retryAt) {
+        if (result.enrollment() != null) {
+            command.setStatus(EnrollmentCommandStatus.SUCCEEDED);
+            command.setEnrollmentId(result.enrollment().getId());
+            command.setResultMessage(null);
+            succeeded.increment();
+        } else if (result.retryable() && command.getAttempts() < maxAttempts) {
+            command.setStatus(EnrollmentCommandStatus.PENDING);
+            command.setNextAttemptAt(retryAt);
+            command.setResultMessage(truncate(result.error()));
+            retried.increment();
+        } else {
+            command.setStatus(EnrollmentCommandStatus.FAILED);
+            command.setResultMessage(truncate(result.error()));
+            failed.increment();
+        }
+    }
+
+    private static List<BatchEnrollResult> uniform(int size, BatchEnrollResult result) {
+        List<BatchEnrollResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -2,32 +2,47 @@ package com.zjsu.nsq.enrollment.service;
 
 import com.zjsu.nsq.enrollment.client.UserClient;
 import com.zjsu.nsq.enrollment.client.CatalogClient;
+import com.zjsu.nsq.enrollment.client.HedgingExecutor;
+import com.zjsu.nsq.enrollment.client.LastKnownGoodStore;
 import com.zjsu.nsq.enrollment.dto.StudentDto;
 import com.zjsu.nsq.enrollment.dto.CourseDto;
-import com.zjsu.nsq.enrollment.exception.ResourceNotFoundException;
+import com.zjsu.nsq.commons.exception.ResourceNotFoundException;
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.commons.trace.TraceContextHolder;
+import com.zjsu.nsq.commons.trace.Tracer;
 import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.index.EnrollmentMembershipIndex;
+import com.zjsu.nsq.enrollment.jfr.EnrollmentStageEvent;
 import com.zjsu.nsq.enrollment.model.Enrollment;
 import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
 import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
-import com.zjsu.nsq.enrollment.util.JsonParser;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.core.env.Environment;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @Transactional
@@ -40,6 +55,16 @@ public class EnrollmentService {
     private final DiscoveryClient discoveryClient;
     private final UserClient userClient;
     private final CatalogClient catalogClient;
+    private final HedgingExecutor hedgingExecutor;
+    private final LastKnownGoodStore lastKnownGood;
+    private final PerfMetrics perfMetrics;
+    private final Tracer tracer;
+    private final EnrollmentWriteCombiner writeCombiner;
+    private final EnrollmentMembershipIndex membershipIndex;
+    // Spring Boot 的 applicationTaskExecutor：平台线程模式下是 ThreadPoolTaskExecutor
+    // （默认 8 个核心线程 + 无界队列，prod 配置里用 spring.task.execution.pool 限定了队列和最大线程数），
+    // 虚拟线程模式下每个任务一个虚拟线程
+    private final Executor asyncExecutor;
 
     @Value("${USER_SERVICE_URL:http://user-service:8083}")
     private String userServiceUrl;
@@ -51,12 +76,26 @@ public class EnrollmentService {
                              LoadBalancerClient loadBalancerClient,
                              DiscoveryClient discoveryClient,
                              UserClient userClient,
-                             CatalogClient catalogClient) {
+                             CatalogClient catalogClient,
+                             HedgingExecutor hedgingExecutor,
+                             LastKnownGoodStore lastKnownGood,
+                             PerfMetrics perfMetrics,
+                             Tracer tracer,
+                             EnrollmentWriteCombiner writeCombiner,
+                             EnrollmentMembershipIndex membershipIndex,
+                             @Qualifier("applicationTaskExecutor") Executor asyncExecutor) {
         this.enrollmentRepository = enrollmentRepository;
         this.loadBalancerClient = loadBalancerClient;
         this.discoveryClient = discoveryClient;
         this.userClient = userClient;
         this.catalogClient = catalogClient;
+        this.hedgingExecutor = hedgingExecutor;
+        this.lastKnownGood = lastKnownGood;
+        this.perfMetrics = perfMetrics;
+        this.tracer = tracer;
+        this.writeCombiner = writeCombiner;
+        this.membershipIndex = membershipIndex;
+        this.asyncExecutor = asyncExecutor;
     }
 
     @PostConstruct
@@ -105,7 +144,9 @@ public class EnrollmentService {
 
     /**
      * 学生选课 - 使用新的 Feign 客户端
+     * 不在事务中执行：下游调用期间不占数据库连接，插入交给 EnrollmentWriteCombiner 组提交
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Enrollment enroll(String courseIdStr, String userIdStr) {
         log.info("🚀 开始选课流程 - courseId: {}, userId: {}", courseIdStr, userIdStr);
 
@@ -116,26 +157,134 @@ public class EnrollmentService {
         Long courseId = convertToLong(courseIdStr, "课程ID");
         Long userId = convertToLong(userIdStr, "用户ID");
 
+        // 以下每个阶段都记录为 JFR 事件（EnrollmentStageEvent）
         // 3. 验证用户存在 - 使用新的 Feign 客户端
-        validateUserExists(userId);
+        EnrollmentStageEvent.run("enroll", "validate_user", courseIdStr, userIdStr, null,
+                () -> validateUserExists(userId));
 
         // 4. 获取课程信息并验证 - 使用新的 Feign 客户端
-        CourseDto courseDto = getAndValidateCourse(courseId);
+        CourseDto courseDto = EnrollmentStageEvent.record("enroll", "validate_course", courseIdStr, userIdStr, null,
+                () -> getAndValidateCourse(courseId));
 
         // 5. 检查重复选课
-        checkDuplicateEnrollment(courseIdStr, userIdStr);
+        EnrollmentStageEvent.run("enroll", "duplicate_check", courseIdStr, userIdStr, null,
+                () -> checkDuplicateEnrollment(courseIdStr, userIdStr));
 
         // 6. 创建选课记录
-        Enrollment enrollment = createEnrollment(courseIdStr, userIdStr);
+        Enrollment enrollment = EnrollmentStageEvent.record("enroll", "insert", courseIdStr, userIdStr, null,
+                () -> createEnrollment(courseIdStr, userIdStr));
 
         // 7. 异步更新课程已选人数
-        updateCourseEnrollmentCountAsync(courseId, courseDto.getData().getEnrolled() + 1);
+        EnrollmentStageEvent.run("enroll", "async_update", courseIdStr, userIdStr, enrollment.getId(),
+                () -> updateCourseEnrollmentCountAsync(courseId, courseDto.getData().getEnrolled() + 1));
 
         log.info("✅ 选课成功 - enrollmentId: {}, courseId: {}, userId: {}",
                 enrollment.getId(), courseIdStr, userIdStr);
         return enrollment;
     }
 
+    /**
+     * 同一门课的一批选课（异步选课 EnrollmentCommandWorker 调用，同一课程同时只有一批在处理）
+     * 课程信息只查一次；已选人数取本服务的 ACTIVE 记录数（课程服务的人数是异步回写的，会丢更新），
+     * 容量按本批已接受的人数递增校验，最后按 ACTIVE 记录数只回写一次课程人数；
+     * 通过校验的插入一起交给 EnrollmentWriteCombiner，落在同一次组提交里；
+     * 每个学生单独成功或失败，结果与 userIds 一一对应。
+     * 课程服务不可用或只有缓存数据时抛 ServiceUnavailableException，整批稍后重试。
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BatchEnrollResult> enrollBatch(String courseIdStr, List<String> userIds) {
+        Long courseId = convertToLong(courseIdStr, "课程ID");
+        CourseDto courseDto = EnrollmentStageEvent.record("batch", "course_lookup", courseIdStr, null, null,
+                () -> fetchCourse(courseId));
+        if (courseDto == null) {
+            throw new ServiceUnavailableException("课程服务不可用，courseId: " + courseId);
+        }
+        requireFreshCourse(courseId, courseDto);
+
+        List<BatchEnrollResult> results = new ArrayList<>(userIds.size());
+        CourseDto.Data course = courseDto.getData();
+        if (!courseDto.isSuccess() || course == null || course.getId() == null) {
+            for (int i = 0; i < userIds.size(); i++) {
+                results.add(BatchEnrollResult.failed("课程不存在，courseId: " + courseId));
+            }
+            return results;
+        }
+
+        long active = enrollmentRepository.countByCourseIdAndStatus(courseIdStr, EnrollmentStatus.ACTIVE);
+
+        // 先逐个校验并提交插入，再统一等待：整批插入合并成少数几次提交
+        List<CompletableFuture<Enrollment>> inserts = new ArrayList<>(userIds.size());
+        int submitted = 0;
+        for (String userIdStr : userIds) {
+            BatchEnrollResult rejected = validateBatchMember(courseIdStr, userIdStr,
+                    active + submitted, course.getCapacity());
+            results.add(rejected);
+            if (rejected == null) {
+                inserts.add(writeCombiner.submit(courseIdStr, userIdStr));
+                submitted++;
+            } else {
+                inserts.add(null);
+            }
+        }
+
+        int accepted = 0;
+        for (int i = 0; i < userIds.size(); i++) {
+            if (inserts.get(i) == null) {
+                continue;
+            }
+            BatchEnrollResult result = awaitBatchInsert(courseIdStr, userIds.get(i), inserts.get(i));
+            if (result.enrollment() != null) {
+                accepted++;
+            }
+            results.set(i, result);
+        }
+
+        if (accepted > 0) {
+            // 重新统计：同步选课 / 退课在本批处理期间也可能写入
+            long enrolled = enrollmentRepository.countByCourseIdAndStatus(courseIdStr, EnrollmentStatus.ACTIVE);
+            updateCourseEnrollmentCountAsync(courseId, (int) enrolled);
+        }
+        log.debug("批量选课完成 - courseId: {}, 命令数: {}, 成功: {}", courseId, userIds.size(), accepted);
+        return results;
+    }
+
+    // 通过校验返回 null，否则返回该学生的失败结果
+    private BatchEnrollResult validateBatchMember(String courseIdStr, String userIdStr, long enrolled, int capacity) {
+        try {
+            Long userId = convertToLong(userIdStr, "用户ID");
+            StudentDto studentDto = fetchStudent(userId);
+            if (studentDto == null || Integer.valueOf(503).equals(studentDto.getCode())) {
+                return BatchEnrollResult.retry("用户服务不可用，userId: " + userId);
+            }
+            if (!studentDto.isSuccess() || studentDto.getData() == null || studentDto.getData().getId() == null) {
+                return BatchEnrollResult.failed("用户不存在，userId: " + userId);
+            }
+            if (enrolled >= capacity) {
+                return BatchEnrollResult.failed(String.format("课程已满（容量: %d，已选: %d）", capacity, enrolled));
+            }
+            checkDuplicateEnrollment(courseIdStr, userIdStr);
+            return null;
+        } catch (DuplicateEnrollmentException | IllegalArgumentException e) {
+            return BatchEnrollResult.failed(e.getMessage());
+        } catch (RuntimeException e) {
+            return BatchEnrollResult.retry(e.getMessage());
+        }
+    }
+
+    private BatchEnrollResult awaitBatchInsert(String courseIdStr, String userIdStr,
+                                               CompletableFuture<Enrollment> insert) {
+        try {
+            Enrollment enrollment = EnrollmentStageEvent.record("batch", "insert", courseIdStr, userIdStr, null,
+                    () -> EnrollmentWriteCombiner.await(insert));
+            return BatchEnrollResult.succeeded(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            // 唯一约束（course_id, user_id）：并发或历史记录导致的重复
+            return BatchEnrollResult.failed(String.format("用户[%s]已选课程[%s]", userIdStr, courseIdStr));
+        } catch (RuntimeException e) {
+            return BatchEnrollResult.retry(e.getMessage());
+        }
+    }
+
     /**
      * 验证用户存在 - 使用新的 Feign 客户端
      */
@@ -149,7 +298,13 @@ public class EnrollmentService {
             log.info("🔍 使用 OpenFeign 调用用户服务 - userId: {}", userId);
 
             // 修改：Feign客户端现在直接返回StudentDto
-            StudentDto studentDto = userClient.getStudent(userId);
+            StudentDto studentDto = fetchStudent(userId);
+
+            // 熔断降级且没有缓存数据：用户服务不可用，不是用户不存在
+            if (studentDto != null && Integer.valueOf(503).equals(studentDto.getCode())) {
+                log.warn("⚠️ 用户服务不可用 - userId: {}", userId);
+                throw new ServiceUnavailableException("用户服务暂时不可用，请稍后重试，userId: " + userId);
+            }
 
             if (studentDto == null || studentDto.getData() == null || studentDto.getData().getId() == null) {
                 log.error("❌ 用户不存在 - userId: {}", userId);
@@ -158,6 +313,8 @@ public class EnrollmentService {
 
             log.info("✅ 用户验证成功 - userId: {}, username: {}", userId, studentDto.getData().getName());
 
+        } catch (StudentNotFoundException | ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("❌ 调用用户服务失败", e);
             throw new StudentNotFoundException("用户服务调用失败，userId: " + userId);
@@ -166,13 +323,15 @@ public class EnrollmentService {
 
     /**
      * 获取并验证课程信息
+     * 熔断降级返回的缓存课程（stale）不能用于选课：容量检查和回写的人数都会基于旧的已选人数
      */
     private CourseDto getAndValidateCourse(Long courseId) {
         try {
             log.info("🔍 使用 OpenFeign 调用课程服务 - courseId: {}", courseId);
 
             // 修改：Feign客户端现在直接返回CourseDto
-            CourseDto courseDto = catalogClient.getCourse(courseId);
+            CourseDto courseDto = fetchCourse(courseId);
+            requireFreshCourse(courseId, courseDto);
 
             if (courseDto == null || courseDto.getData() == null || courseDto.getData().getId() == null) {
                 log.error("❌ 课程不存在 - courseId: {}", courseId);
@@ -182,18 +341,12 @@ public class EnrollmentService {
             CourseDto.Data courseData = courseDto.getData();
 
             // 检查课程容量
-            if (courseData.getEnrolled() >= courseData.getCapacity()) {
-                log.warn("⚠️ 课程已满 - courseId: {}, capacity: {}, enrolled: {}",
-                        courseId, courseData.getCapacity(), courseData.getEnrolled());
-                throw new CourseFullException(
-                        String.format("课程已满（容量: %d，已选: %d）",
-                                courseData.getCapacity(), courseData.getEnrolled()));
-            }
+            checkCapacity(courseId, courseData);
 
             log.info("✅ 课程验证成功 - courseId: {}, title: {}", courseId, courseData.getTitle());
             return courseDto;
 
-        } catch (CourseNotFoundException | CourseFullException e) {
+        } catch (CourseNotFoundException | CourseFullException | ServiceUnavailableException e) {
             throw e;
         } catch (Exception e) {
             log.error("❌ 调用课程服务失败", e);
@@ -206,7 +359,9 @@ public class EnrollmentService {
             log.info("🔍 使用 OpenFeign 获取课程信息 - courseId: {}", courseId);
 
             // 修改：Feign客户端现在直接返回CourseDto
-            CourseDto courseDto = catalogClient.getCourse(courseId);
+            CourseDto courseDto = fetchCourse(courseId);
+            // 退课同样要回写已选人数，不能基于缓存的旧值
+            requireFreshCourse(courseId, courseDto);
 
             if (courseDto == null || courseDto.getData() == null || courseDto.getData().getId() == null) {
                 log.error("❌ 课程不存在 - courseId: {}", courseId);
@@ -216,15 +371,96 @@ public class EnrollmentService {
             log.info("✅ 获取课程信息成功 - courseId: {}, title: {}", courseId, courseDto.getData().getTitle());
             return courseDto;
 
+        } catch (CourseNotFoundException | ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("❌ 调用课程服务失败", e);
             throw new CourseNotFoundException("课程服务调用失败，courseId: " + courseId);
         }
     }
+
+    /**
+     * 检查课程容量（响应式选课 ReactiveEnrollmentService 共用）
+     */
+    static void checkCapacity(Long courseId, CourseDto.Data courseData) {
+        if (courseData.getEnrolled() >= courseData.getCapacity()) {
+            log.warn("⚠️ 课程已满 - courseId: {}, capacity: {}, enrolled: {}",
+                    courseId, courseData.getCapacity(), courseData.getEnrolled());
+            throw new CourseFullException(
+                    String.format("课程已满（容量: %d，已选: %d）",
+                            courseData.getCapacity(), courseData.getEnrolled()));
+        }
+    }
+
+    /**
+     * 选课 / 退课只接受课程服务的实时数据：熔断降级的缓存数据（stale）或无数据（503）直接返回 503
+     * 缓存数据只用于只读展示
+     */
+    static void requireFreshCourse(Long courseId, CourseDto courseDto) {
+        if (courseDto != null && (courseDto.isStale() || Integer.valueOf(503).equals(courseDto.getCode()))) {
+            log.warn("⚠️ 课程服务不可用，拒绝基于缓存数据的写操作 - courseId: {}", courseId);
+            throw new ServiceUnavailableException("课程服务暂时不可用，请稍后重试，courseId: " + courseId);
+        }
+    }
+
+    /**
+     * 读取学生信息（幂等读，开启对冲时可能发出第二次请求）
+     */
+    private StudentDto fetchStudent(Long userId) {
+        Timer.Sample sample = Timer.start(perfMetrics.registry());
+        StudentDto studentDto;
+        try {
+            studentDto = tracer.inSpan("user-service getStudent", () -> hedgingExecutor.call("user-service",
+                    () -> userClient.getStudent(userId),
+                    dto -> dto != null && dto.isSuccess() && !dto.isStale()));
+        } catch (RuntimeException e) {
+            sample.stop(downstreamTimer("user-service", "error"));
+            throw e;
+        }
+        sample.stop(downstreamTimer("user-service", outcome(studentDto != null && studentDto.isSuccess(),
+                studentDto != null && studentDto.isStale())));
+        lastKnownGood.rememberStudent(userId, studentDto);
+        return studentDto;
+    }
+
+    /**
+     * 读取课程信息（幂等读，开启对冲时可能发出第二次请求）
+     */
+    private CourseDto fetchCourse(Long courseId) {
+        Timer.Sample sample = Timer.start(perfMetrics.registry());
+        CourseDto courseDto;
+        try {
+            courseDto = tracer.inSpan("catalog-service getCourse", () -> hedgingExecutor.call("catalog-service",
+                    () -> catalogClient.getCourse(courseId),
+                    dto -> dto != null && dto.isSuccess() && !dto.isStale()));
+        } catch (RuntimeException e) {
+            sample.stop(downstreamTimer("catalog-service", "error"));
+            throw e;
+        }
+        sample.stop(downstreamTimer("catalog-service", outcome(courseDto != null && courseDto.isSuccess(),
+                courseDto != null && courseDto.isStale())));
+        lastKnownGood.rememberCourse(courseId, courseDto);
+        return courseDto;
+    }
+
+    /**
+     * 下游读调用的结果分类：success=正常, stale=降级返回缓存, fallback=降级且无数据（含业务失败）
+     */
+    private static String outcome(boolean success, boolean stale) {
+        if (stale) {
+            return "stale";
+        }
+        return success ? "success" : "fallback";
+    }
+
+    private Timer downstreamTimer(String client, String outcome) {
+        return perfMetrics.timer("enrollment.downstream.duration", Tags.of("client", client, "outcome", outcome));
+    }
+
     /**
      * 字符串转Long的辅助方法
      */
-    private Long convertToLong(String value, String fieldName) {
+    static Long convertToLong(String value, String fieldName) {
         try {
             return Long.parseLong(value);
         } catch (NumberFormatException e) {
@@ -241,22 +477,28 @@ public class EnrollmentService {
         log.info("🔙 开始退课 - enrollmentId: {}", enrollmentId);
 
         // 1. 获取选课记录
-        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
-                .orElseThrow(() -> new EnrollmentNotFoundException("选课记录不存在，ID: " + enrollmentId));
+        Enrollment enrollment = EnrollmentStageEvent.record("drop", "load", null, null, enrollmentId,
+                () -> enrollmentRepository.findById(enrollmentId)
+                        .orElseThrow(() -> new EnrollmentNotFoundException("选课记录不存在，ID: " + enrollmentId)));
+        String courseIdStr = enrollment.getCourseId();
+        String userIdStr = enrollment.getUserId();
 
         // 2. 验证选课状态
         validateActiveStatus(enrollment, "退课");
 
         // 3. 获取课程信息
-        Long courseId = convertToLong(enrollment.getCourseId(), "课程ID");
-        CourseDto courseDto = getCourseInfo(courseId);
+        Long courseId = convertToLong(courseIdStr, "课程ID");
+        CourseDto courseDto = EnrollmentStageEvent.record("drop", "course_lookup", courseIdStr, userIdStr, enrollmentId,
+                () -> getCourseInfo(courseId));
 
         // 4. 更新选课状态
         enrollment.setStatus(EnrollmentStatus.DROPPED);
-        Enrollment updated = enrollmentRepository.save(enrollment);
+        Enrollment updated = EnrollmentStageEvent.record("drop", "update", courseIdStr, userIdStr, enrollmentId,
+                () -> enrollmentRepository.save(enrollment));
 
         // 5. 异步更新课程已选人数
-        updateCourseEnrollmentCountAsync(courseId, courseDto.getData().getEnrolled() - 1);
+        EnrollmentStageEvent.run("drop", "async_update", courseIdStr, userIdStr, enrollmentId,
+                () -> updateCourseEnrollmentCountAsync(courseId, courseDto.getData().getEnrolled() - 1));
 
         log.info("✅ 退课成功 - enrollmentId: {}", enrollmentId);
         return updated;
@@ -266,18 +508,24 @@ public class EnrollmentService {
     public void unenroll(Long enrollmentId) {
         log.info("🔙 退课操作 - enrollmentId: {}", enrollmentId);
 
-        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("选课记录", enrollmentId.toString()));
+        Enrollment enrollment = EnrollmentStageEvent.record("unenroll", "load", null, null, enrollmentId,
+                () -> enrollmentRepository.findById(enrollmentId)
+                        .orElseThrow(() -> new ResourceNotFoundException("选课记录", enrollmentId.toString())));
+        String courseIdStr = enrollment.getCourseId();
+        String userIdStr = enrollment.getUserId();
 
         // 获取课程信息
-        Long courseId = convertToLong(enrollment.getCourseId(), "课程ID");
-        CourseDto courseDto = getCourseInfo(courseId);
+        Long courseId = convertToLong(courseIdStr, "课程ID");
+        CourseDto courseDto = EnrollmentStageEvent.record("unenroll", "course_lookup", courseIdStr, userIdStr,
+                enrollmentId, () -> getCourseInfo(courseId));
 
         // 删除选课记录
-        enrollmentRepository.delete(enrollment);
+        EnrollmentStageEvent.run("unenroll", "delete", courseIdStr, userIdStr, enrollmentId,
+                () -> enrollmentRepository.delete(enrollment));
 
         // 异步更新课程已选人数
-        updateCourseEnrollmentCountAsync(courseId, courseDto.getData().getEnrolled() - 1);
+        EnrollmentStageEvent.run("unenroll", "async_update", courseIdStr, userIdStr, enrollmentId,
+                () -> updateCourseEnrollmentCountAsync(courseId, courseDto.getData().getEnrolled() - 1));
 
         log.info("✅ 退课成功 - enrollmentId: {}", enrollmentId);
     }
@@ -330,8 +578,43 @@ public class EnrollmentService {
         log.info("✅ 删除成功 - enrollmentId: {}", enrollmentId);
     }
 
+    // ==================== 抽签选课（LotteryService 调用） ====================
+
+    /**
+     * 校验学生存在（抽签报名时调用）
+     */
+    public void requireStudent(String userIdStr) {
+        validateUserExists(convertToLong(userIdStr, "用户ID"));
+    }
+
+    /**
+     * 抽签分配前读取课程的当前容量和已选人数
+     * 课程服务不可用或只有缓存数据时抛 ServiceUnavailableException，分配稍后重试
+     */
+    public CourseDto.Data loadCourseForAllocation(String courseIdStr) {
+        Long courseId = convertToLong(courseIdStr, "课程ID");
+        CourseDto courseDto = fetchCourse(courseId);
+        if (courseDto == null) {
+            throw new ServiceUnavailableException("课程服务不可用，courseId: " + courseId);
+        }
+        requireFreshCourse(courseId, courseDto);
+        if (!courseDto.isSuccess() || courseDto.getData() == null || courseDto.getData().getId() == null) {
+            throw new CourseNotFoundException("课程不存在，courseId: " + courseId);
+        }
+        return courseDto.getData();
+    }
+
+    /**
+     * 抽签分配完成后回写一次课程已选人数
+     */
+    public void publishCourseEnrollmentCount(String courseIdStr, int newCount) {
+        updateCourseEnrollmentCountAsync(convertToLong(courseIdStr, "课程ID"), newCount);
+    }
+
     // ==================== 统计方法（保持不变） ====================
 
+    // 计数 / 列表 / 统计都查数据库：内存索引只反映本实例的写入，其他实例的写入要等下次重建才可见
+
     @Transactional(readOnly = true)
     public Long countActiveEnrollmentsByCourse(String courseId) {
         return enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.ACTIVE);
@@ -342,6 +625,16 @@ public class EnrollmentService {
         return enrollmentRepository.countByUserIdAndStatus(userId, EnrollmentStatus.ACTIVE);
     }
 
+    @Transactional(readOnly = true)
+    public List<String> findActiveCourseIdsByUser(String userId) {
+        return enrollmentRepository.findActiveCourseIdsByUser(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> findActiveUserIdsByCourse(String courseId) {
+        return enrollmentRepository.findActiveUserIdsByCourse(courseId);
+    }
+
     @Transactional(readOnly = true)
     public Long countTotalEnrollmentsByCourse(String courseId) {
         return enrollmentRepository.countByCourseId(courseId);
@@ -368,7 +661,7 @@ public class EnrollmentService {
     /**
      * 验证选课参数
      */
-    private void validateEnrollmentParameters(String courseId, String userId) {
+    static void validateEnrollmentParameters(String courseId, String userId) {
         if (userId == null || userId.trim().isEmpty()) {
             throw new RuntimeException("userId 不能为空");
         }
@@ -378,13 +671,15 @@ public class EnrollmentService {
     }
 
     /**
-     * 检查重复选课
+     * 检查重复选课（内存索引说“未选”时省掉一次查询；索引可能落后于其他实例的写入，漏判由数据库唯一约束兜底）
+     * 索引说“已选”时仍以数据库为准：其他实例上的退课不会同步到本实例的索引，不能据此拒绝选课
      */
-    private void checkDuplicateEnrollment(String courseId, String userId) {
-        Optional<Enrollment> existingEnrollment = enrollmentRepository
-                .findByCourseIdAndUserIdAndStatus(courseId, userId, EnrollmentStatus.ACTIVE);
+    void checkDuplicateEnrollment(String courseId, String userId) {
+        boolean duplicate = (!membershipIndex.covers(courseId, userId) || membershipIndex.isActive(courseId, userId))
+                && enrollmentRepository.findByCourseIdAndUserIdAndStatus(courseId, userId, EnrollmentStatus.ACTIVE)
+                        .isPresent();
 
-        if (existingEnrollment.isPresent()) {
+        if (duplicate) {
             log.warn("⚠️ 重复选课 - courseId: {}, userId: {}", courseId, userId);
             throw new DuplicateEnrollmentException(
                     String.format("用户[%s]已选课程[%s]", userId, courseId));
@@ -392,15 +687,10 @@ public class EnrollmentService {
     }
 
     /**
-     * 创建选课记录
+     * 创建选课记录（与其他并发选课合并为一次提交，见 EnrollmentWriteCombiner；已在事务中时直接插入）
      */
-    private Enrollment createEnrollment(String courseId, String userId) {
-        Enrollment enrollment = new Enrollment();
-        enrollment.setCourseId(courseId);
-        enrollment.setUserId(userId);
-        enrollment.setStatus(EnrollmentStatus.ACTIVE);
-
-        return enrollmentRepository.save(enrollment);
+    Enrollment createEnrollment(String courseId, String userId) {
+        return writeCombiner.insert(courseId, userId);
     }
 
     /**
@@ -420,18 +710,32 @@ public class EnrollmentService {
      * 更新课程已选人数 - 使用新的 Feign 客户端
      */
     private void updateCourseEnrollmentCountAsync(Long courseId, int newCount) {
-        new Thread(() -> {
-            try {
-                log.info("🔄 使用 OpenFeign 更新课程人数 - courseId: {}, newCount: {}", courseId, newCount);
+        try {
+            // 带上当前请求的 TraceContext，异步更新的下游请求仍属于同一条调用链
+            asyncExecutor.execute(TraceContextHolder.wrap(() -> updateCourseEnrollmentCount(courseId, newCount)));
+        } catch (RejectedExecutionException e) {
+            // 线程池和队列都满：选课本身已经提交，人数回写与熔断降级时一样跳过，不影响本次请求
+            perfMetrics.counter("enrollment.course_count_update", Tags.of("result", "rejected")).increment();
+            log.warn("⚠️ 异步更新课程人数被拒绝（线程池已满），跳过 - courseId: {}, newCount: {}", courseId, newCount);
+        }
+    }
 
-                catalogClient.updateCourseEnrollment(courseId, newCount);
+    private void updateCourseEnrollmentCount(Long courseId, int newCount) {
+        try {
+            log.info("🔄 使用 OpenFeign 更新课程人数 - courseId: {}, newCount: {}", courseId, newCount);
 
-                log.info("✅ 课程已选人数更新成功 - courseId: {}, newCount: {}", courseId, newCount);
+            // 异步线程上的实际下游调用单独记录为 async / course_count_update 阶段
+            EnrollmentStageEvent.record("async", "course_count_update", String.valueOf(courseId), null, null,
+                    () -> tracer.inSpan("catalog-service updateCourseEnrollment", () -> {
+                        catalogClient.updateCourseEnrollment(courseId, newCount);
+                        return null;
+                    }));
 
-            } catch (Exception e) {
-                log.error("❌ 异步更新课程人数失败 - courseId: {}, error: {}", courseId, e.getMessage());
-            }
-        }).start();
+            log.info("✅ 课程已选人数更新成功 - courseId: {}, newCount: {}", courseId, newCount);
+
+        } catch (Exception e) {
+            log.error("❌ 异步更新课程人数失败 - courseId: {}, error: {}", courseId, e.getMessage());
+        }
     }
 
     /**
@@ -538,6 +842,26 @@ public class EnrollmentService {
             return null;
         }
     }
+    // ==================== 批量选课结果 ====================
+
+    /**
+     * 批量选课中单个学生的结果：成功时带选课记录；失败时带原因，retryable 表示下游暂时不可用、可以稍后重试
+     */
+    public record BatchEnrollResult(Enrollment enrollment, String error, boolean retryable) {
+
+        static BatchEnrollResult succeeded(Enrollment enrollment) {
+            return new BatchEnrollResult(enrollment, null, false);
+        }
+
+        static BatchEnrollResult failed(String error) {
+            return new BatchEnrollResult(null, error, false);
+        }
+
+        static BatchEnrollResult retry(String error) {
+            return new BatchEnrollResult(null, error, true);
+        }
+    }
+
     // ==================== 自定义异常类 ====================
 
     public static class EnrollmentNotFoundException extends RuntimeException {
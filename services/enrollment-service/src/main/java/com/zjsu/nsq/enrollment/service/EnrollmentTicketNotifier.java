@@ -0,0 +1,128 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.enrollment.dto.EnrollmentTicketView;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommand;
+import com.zjsu.nsq.enrollment.repository.EnrollmentCommandRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步选课结果推送（SSE）
+ * - 本实例处理完的命令由 EnrollmentCommandWorker 直接 publish
+ * - 命令可能被其他实例处理：定时按票据查库，补推已经结束的命令
+ * 每个 SseEmitter 只推送一次最终结果，随后关闭连接
+ */
+@Component
+public class EnrollmentTicketNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentTicketNotifier.class);
+
+    private static final String RESULT_EVENT = "result";
+
+    private final EnrollmentCommandRepository commandRepository;
+    private final long timeoutMs;
+    private final long sweepIntervalMs;
+
+    // 票据 -> 等待结果的 SSE 连接
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "enrollment-ticket-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EnrollmentTicketNotifier(EnrollmentCommandRepository commandRepository,
+                                    @Value("${enrollment.async.sse-timeout-ms:30000}") long timeoutMs,
+                                    @Value("${enrollment.async.sse-sweep-interval-ms:1000}") long sweepIntervalMs) {
+        this.commandRepository = commandRepository;
+        this.timeoutMs = timeoutMs;
+        this.sweepIntervalMs = sweepIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        emitters.values().forEach(list -> list.forEach(SseEmitter::complete));
+        emitters.clear();
+    }
+
+    /**
+     * 订阅某个票据的结果；命令已经结束时立即推送并关闭
+     */
+    public SseEmitter subscribe(EnrollmentCommand command) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        if (command.getStatus().isTerminal()) {
+            send(emitter, command);
+            return emitter;
+        }
+
+        String ticket = command.getId();
+        emitters.computeIfAbsent(ticket, key -> new CopyOnWriteArrayList<>()).add(emitter);
+        Runnable remove = () -> remove(ticket, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    /**
+     * 推送已结束命令的结果（未结束的命令忽略）
+     */
+    public void publish(EnrollmentCommand command) {
+        if (!command.getStatus().isTerminal()) {
+            return;
+        }
+        List<SseEmitter> waiting = emitters.remove(command.getId());
+        if (waiting != null) {
+            waiting.forEach(emitter -> send(emitter, command));
+        }
+    }
+
+    // 补推其他实例处理完成的票据
+    private void sweep() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        try {
+            commandRepository.findByIdIn(List.copyOf(emitters.keySet())).forEach(this::publish);
+        } catch (Exception e) {
+            log.warn("⚠️ 查询异步选课票据状态失败: {}", e.getMessage());
+        }
+    }
+
+    private void remove(String ticket, SseEmitter emitter) {
+        emitters.computeIfPresent(ticket, (key, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static void send(SseEmitter emitter, EnrollmentCommand command) {
+        try {
+            emitter.send(SseEmitter.event().name(RESULT_EVENT).data(EnrollmentTicketView.from(command)));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开，结果仍可轮询获取
+            emitter.completeWithError(e);
+        }
+    }
+}
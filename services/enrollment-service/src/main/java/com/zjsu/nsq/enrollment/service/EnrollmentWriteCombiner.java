@@ -0,0 +1,282 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 选课插入的组提交（group commit）
+ * - 并发的 createEnrollment 先进入队列，刷写线程最多等待 max-wait-ms 或攒够 max-batch 条，
+ *   在一个事务里插入并只提交一次：每秒提交 / fsync 次数随批量大小下降，而不是每条选课一次
+ * - 每个调用方拿到自己的那一行；批次里有一条违反唯一约束时整批回滚，再逐条单独提交，
+ *   只有出错的那条收到 DataIntegrityViolationException
+ * - 调用方已在事务中时直接插入（不能让外层事务看不到自己写的行，也避免占着连接等刷写线程的连接）
+ */
+@Component
+public class EnrollmentWriteCombiner {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentWriteCombiner.class);
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final int flushThreads;
+    private final BlockingQueue<PendingInsert> queue;
+
+    private final Timer flushTimer;
+    private final Timer fallbackTimer;
+    private final DistributionSummary batchSize;
+
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean running;
+
+    public EnrollmentWriteCombiner(EnrollmentRepository enrollmentRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   PerfMetrics perfMetrics,
+                                   @Value("${enrollment.write-combiner.enabled:true}") boolean enabled,
+                                   @Value("${enrollment.write-combiner.max-batch:64}") int maxBatch,
+                                   @Value("${enrollment.write-combiner.max-wait-ms:2}") long maxWaitMs,
+                                   @Value("${enrollment.write-combiner.flush-threads:2}") int flushThreads,
+                                   @Value("${enrollment.write-combiner.max-pending:10000}") int maxPending) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMs));
+        this.flushThreads = Math.max(1, flushThreads);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, maxPending));
+
+        this.flushTimer = perfMetrics.timer("enrollment.write.flush", Tags.of("mode", "batch"));
+        this.fallbackTimer = perfMetrics.timer("enrollment.write.flush", Tags.of("mode", "per_row"));
+        this.batchSize = DistributionSummary.builder("enrollment.write.batch.size")
+                .description("每次组提交包含的选课插入条数")
+                .register(perfMetrics.registry());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < flushThreads; i++) {
+            Thread thread = new Thread(this::flushLoop, "enrollment-write-combiner-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            flushers.add(thread);
+        }
+        log.info("选课组提交已启用 - maxBatch: {}, maxWaitMs: {}, flushThreads: {}",
+                maxBatch, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos), flushThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 不中断刷写线程（可能正在提交事务），等它们处理完当前批次后自行退出
+        running = false;
+        for (Thread thread : flushers) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // 刷写线程退出后仍在队列里的请求直接失败，调用方返回 503
+        List<PendingInsert> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        leftover.forEach(p -> p.future.completeExceptionally(
+                new ServiceUnavailableException("选课服务正在停止，请稍后重试")));
+    }
+
+    /**
+     * 插入一条 ACTIVE 选课记录，阻塞到所在批次提交完成
+     *
+     * @throws DataIntegrityViolationException 违反唯一约束（course_id, user_id）
+     * @throws ServiceUnavailableException     排队已满
+     */
+    public Enrollment insert(String courseId, String userId) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return enrollmentRepository.save(newEnrollment(courseId, userId));
+        }
+        return await(submit(courseId, userId));
+    }
+
+    /**
+     * 等待 submit 返回的 future，把批次里的异常原样抛给调用方
+     */
+    public static Enrollment await(CompletableFuture<Enrollment> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 异步提交一条插入；future 在所在批次提交后完成（调用方不能处于事务中）
+     */
+    public CompletableFuture<Enrollment> submit(String courseId, String userId) {
+        if (!running) {
+            try {
+                return CompletableFuture.completedFuture(enrollmentRepository.save(newEnrollment(courseId, userId)));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        PendingInsert pending = new PendingInsert(courseId, userId, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            pending.future.completeExceptionally(new ServiceUnavailableException("选课写入排队已满，请稍后重试"));
+        } else if (!running && queue.remove(pending)) {
+            // 入队时恰好在停止：刷写线程可能已经退出，不能让调用方一直等
+            pending.future.completeExceptionally(new ServiceUnavailableException("选课服务正在停止，请稍后重试"));
+        }
+        return pending.future;
+    }
+
+    // ==================== 刷写线程 ====================
+
+    private void flushLoop() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingInsert first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // flush 已经完成了每个 future，这里只防止刷写线程退出
+                log.error("❌ 选课组提交失败: {}", e.getMessage());
+            } finally {
+                for (PendingInsert pending : batch) {
+                    if (!pending.future.isDone()) {
+                        pending.future.completeExceptionally(
+                                new ServiceUnavailableException("选课写入中断，请稍后重试"));
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    // 在等待窗口内继续收集，直到攒满一批
+    private void collect(List<PendingInsert> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatch) {
+            if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        batchSize.record(batch.size());
+
+        // 同一批里重复的（课程, 用户）：后到的直接按唯一约束失败，不拖累整批
+        List<PendingInsert> distinct = new ArrayList<>(batch.size());
+        Set<String> keys = new HashSet<>();
+        for (PendingInsert pending : batch) {
+            if (keys.add(pending.courseId + '\u0000' + pending.userId)) {
+                distinct.add(pending);
+            } else {
+                pending.future.completeExceptionally(duplicate(pending));
+            }
+        }
+
+        List<Enrollment> saved;
+        try {
+            saved = flushTimer.record(() -> transactionTemplate.execute(status -> {
+                List<Enrollment> rows = new ArrayList<>(distinct.size());
+                for (PendingInsert pending : distinct) {
+                    rows.add(enrollmentRepository.save(newEnrollment(pending.courseId, pending.userId)));
+                }
+                return rows;
+            }));
+        } catch (RuntimeException e) {
+            if (distinct.size() == 1) {
+                distinct.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.debug("选课组提交回滚，逐条重试 - 批量: {}, error: {}", distinct.size(), e.getMessage());
+            fallbackTimer.record(() -> flushOneByOne(distinct));
+            return;
+        }
+        for (int i = 0; i < distinct.size(); i++) {
+            distinct.get(i).future.complete(saved.get(i));
+        }
+    }
+
+    // 批量事务失败后的兜底：每条单独一个事务，错误只落在对应的调用方
+    private void flushOneByOne(List<PendingInsert> batch) {
+        for (PendingInsert pending : batch) {
+            try {
+                Enrollment row = transactionTemplate.execute(status ->
+                        enrollmentRepository.save(newEnrollment(pending.courseId, pending.userId)));
+                pending.future.complete(row);
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // 每次提交都新建实体：回滚的批次里实体已被分配过 IDENTITY 主键，不能复用
+    private static Enrollment newEnrollment(String courseId, String userId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setCourseId(courseId);
+        enrollment.setUserId(userId);
+        enrollment.setStatus(EnrollmentStatus.ACTIVE);
+        return enrollment;
+    }
+
+    private static DataIntegrityViolationException duplicate(PendingInsert pending) {
+        return new DataIntegrityViolationException(
+                String.format("用户[%s]已选课程[%s]（同一批次重复提交）", pending.userId, pending.courseId));
+    }
+
+    private record PendingInsert(String courseId, String userId, CompletableFuture<Enrollment> future) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.model.LotteryEntry;
+import com.zjsu.nsq.enrollment.model.LotteryEntryStatus;
+import com.zjsu.nsq.enrollment.model.LotteryWindow;
+import com.zjsu.nsq.enrollment.model.LotteryWindowStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import com.zjsu.nsq.enrollment.repository.LotteryEntryRepository;
+import com.zjsu.nsq.enrollment.repository.LotteryWindowRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 抽签分配：窗口关闭（再过 grace-period-ms，等各实例上最后几条报名提交完）后执行一次
+ * 1. 认领窗口 OPEN -> ALLOCATING（多实例只有一个执行）
+ * 2. 读一次课程容量；剩余名额 = 容量 - 本服务中该课程的 ACTIVE 记录数（在分配事务里统计，
+ *    不用课程服务异步回写的已选人数）；已有该课程选课记录的学生（含已退课，唯一约束不区分状态）判为无效报名
+ * 3. 用随机种子打乱报名顺序，按剩余名额录取，其余按顺序进入候补
+ * 4. 录取的选课记录、所有报名结果、窗口状态在同一个事务里写入，最后按 ACTIVE 记录数回写一次课程人数
+ * 分配失败时窗口退回 OPEN，下一轮重试；实例崩溃遗留的 ALLOCATING 超过 stale-allocation-seconds 后放回
+ */
+@Component
+public class LotteryAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(LotteryAllocator.class);
+
+    private final LotteryWindowRepository windowRepository;
+    private final LotteryEntryRepository entryRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentService enrollmentService;
+    private final LotteryService lotteryService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final long pollIntervalMs;
+    private final long gracePeriodMs;
+    private final long staleAllocationSeconds;
+
+    private final Timer allocationTimer;
+    private final Counter admittedCounter;
+    private final Counter waitlistedCounter;
+    private final Counter rejectedCounter;
+
+    private final SecureRandom seeds = new SecureRandom();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lottery-allocator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LotteryAllocator(LotteryWindowRepository windowRepository,
+                            LotteryEntryRepository entryRepository,
+                            EnrollmentRepository enrollmentRepository,
+                            EnrollmentService enrollmentService,
+                            LotteryService lotteryService,
+                            TransactionTemplate transactionTemplate,
+                            PerfMetrics perfMetrics,
+                            @Value("${enrollment.lottery.poll-interval-ms:1000}") long pollIntervalMs,
+                            @Value("${enrollment.lottery.grace-period-ms:2000}") long gracePeriodMs,
+                            @Value("${enrollment.lottery.stale-allocation-seconds:300}") long staleAllocationSeconds) {
+        this.windowRepository = windowRepository;
+        this.entryRepository = entryRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.enrollmentService = enrollmentService;
+        this.lotteryService = lotteryService;
+        this.transactionTemplate = transactionTemplate;
+        this.pollIntervalMs = pollIntervalMs;
+        this.gracePeriodMs = gracePeriodMs;
+        this.staleAllocationSeconds = staleAllocationSeconds;
+
+        this.allocationTimer = perfMetrics.timer("enrollment.lottery.allocation", Tags.empty());
+        this.admittedCounter = perfMetrics.counter("enrollment.lottery.entries", Tags.of("result", "admitted"));
+        this.waitlistedCounter = perfMetrics.counter("enrollment.lottery.entries", Tags.of("result", "waitlisted"));
+        this.rejectedCounter = perfMetrics.counter("enrollment.lottery.entries", Tags.of("result", "rejected"));
+    }
+
+    @PostConstruct
+    public void start() {
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    // 包内可见：单元测试直接驱动一轮轮询
+    void poll() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int released = windowRepository.releaseStale(LotteryWindowStatus.ALLOCATING, LotteryWindowStatus.OPEN,
+                    now.minusSeconds(staleAllocationSeconds));
+            if (released > 0) {
+                log.warn("⚠️ {} 个抽签窗口分配超时，已放回等待重新分配", released);
+            }
+            LocalDateTime due = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(gracePeriodMs));
+            for (LotteryWindow window : windowRepository.findDue(LotteryWindowStatus.OPEN, due)) {
+                if (windowRepository.claim(window.getId(), LotteryWindowStatus.OPEN,
+                        LotteryWindowStatus.ALLOCATING, now) == 1) {
+                    allocationTimer.record(() -> allocate(window));
+                }
+            }
+        } catch (Exception e) {
+            // 轮询线程不能因单次异常退出（scheduleWithFixedDelay 遇到异常会停止后续调度）
+            log.error("❌ 抽签分配轮询失败: {}", e.getMessage());
+        }
+    }
+
+    // ==================== 分配 ====================
+
+    private void allocate(LotteryWindow window) {
+        String courseId = window.getCourseId();
+        try {
+            // 课程服务只提供容量；已选人数是课程服务异步回写的计数，可能丢更新，不能用来算剩余名额
+            CourseDto.Data course = enrollmentService.loadCourseForAllocation(courseId);
+            long seed = seeds.nextLong();
+
+            // 一个事务：按本服务的 ACTIVE 记录数算名额 + 批量插入录取的选课记录 + 写回所有报名结果 + 窗口完成
+            Allocation allocation = transactionTemplate.execute(status -> {
+                long active = enrollmentRepository.countByCourseIdAndStatus(courseId, EnrollmentStatus.ACTIVE);
+                int seats = (int) Math.max(0, course.getCapacity() - active);
+                List<LotteryEntry> drawn = new ArrayList<>(entryRepository.findByWindowIdAndStatus(window.getId(),
+                        LotteryEntryStatus.PENDING));
+                Set<String> taken = new HashSet<>(enrollmentRepository.findUserIdsByCourse(courseId));
+                Collections.shuffle(drawn, new Random(seed));
+
+                List<LotteryEntry> admitted = new ArrayList<>(Math.min(seats, drawn.size()));
+                List<Enrollment> enrollments = new ArrayList<>(Math.min(seats, drawn.size()));
+                int waitlisted = 0;
+                int rejected = 0;
+                for (LotteryEntry entry : drawn) {
+                    if (!taken.add(entry.getUserId())) {
+                        entry.setStatus(LotteryEntryStatus.REJECTED);
+                        entry.setResultMessage(String.format("用户[%s]已选过课程[%s]", entry.getUserId(), courseId));
+                        rejected++;
+                    } else if (admitted.size() < seats) {
+                        entry.setStatus(LotteryEntryStatus.ADMITTED);
+                        admitted.add(entry);
+                        enrollments.add(newEnrollment(courseId, entry.getUserId()));
+                    } else {
+                        entry.setStatus(LotteryEntryStatus.WAITLISTED);
+                        entry.setWaitlistPosition(++waitlisted);
+                    }
+                }
+
+                List<Enrollment> saved = enrollmentRepository.saveAll(enrollments);
+                for (int i = 0; i < admitted.size(); i++) {
+                    admitted.get(i).setEnrollmentId(saved.get(i).getId());
+                }
+                entryRepository.saveAll(drawn);
+
+                window.setStatus(LotteryWindowStatus.ALLOCATED);
+                window.setSeed(seed);
+                window.setAdmitted(admitted.size());
+                window.setWaitlisted(waitlisted);
+                window.setAllocatedAt(LocalDateTime.now());
+                return new Allocation(windowRepository.save(window), drawn.size(), active + admitted.size(),
+                        admitted.size(), waitlisted, rejected);
+            });
+
+            if (allocation.admitted() > 0) {
+                enrollmentService.publishCourseEnrollmentCount(courseId, (int) allocation.enrolled());
+            }
+            lotteryService.onAllocated(allocation.window());
+            admittedCounter.increment(allocation.admitted());
+            waitlistedCounter.increment(allocation.waitlisted());
+            rejectedCounter.increment(allocation.rejected());
+            log.info("🎲 抽签分配完成 - windowId: {}, courseId: {}, 报名: {}, 录取: {}, 候补: {}, 无效: {}, seed: {}",
+                    window.getId(), courseId, allocation.entries(), allocation.admitted(),
+                    allocation.waitlisted(), allocation.rejected(), seed);
+        } catch (RuntimeException e) {
+            windowRepository.release(window.getId(), LotteryWindowStatus.ALLOCATING, LotteryWindowStatus.OPEN);
+            log.error("❌ 抽签分配失败，稍后重试 - windowId: {}, courseId: {}, error: {}",
+                    window.getId(), courseId, e.getMessage());
+        }
+    }
+
+    private static Enrollment newEnrollment(String courseId, String userId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setCourseId(courseId);
+        enrollment.setUserId(userId);
+        enrollment.setStatus(EnrollmentStatus.ACTIVE);
+        return enrollment;
+    }
+
+    // enrolled：分配后本服务中该课程的 ACTIVE 选课数，回写给课程服务
+    private record Allocation(LotteryWindow window, int entries, long enrolled,
+                              int admitted, int waitlisted, int rejected) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.enrollment.model.LotteryEntry;
+import com.zjsu.nsq.enrollment.model.LotteryWindow;
+import com.zjsu.nsq.enrollment.model.LotteryWindowStatus;
+import com.zjsu.nsq.enrollment.repository.LotteryEntryRepository;
+import com.zjsu.nsq.enrollment.repository.LotteryWindowRepository;
+import com.zjsu.nsq.enrollment.service.EnrollmentService.InvalidEnrollmentOperationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 抽签选课：窗口管理与报名
+ * - 课程存在未分配完成的窗口时处于抽签模式：POST /api/enrollments 只记录报名，不占课程容量
+ * - 未分配完成的窗口在每个实例上缓存一份（按 refresh-interval-ms 从库里刷新），
+ *   选课请求判断是否走抽签不需要查库；其他实例新建的窗口最多延迟一个刷新周期生效
+ * - 分配见 LotteryAllocator
+ */
+@Service
+public class LotteryService {
+
+    private static final Logger log = LoggerFactory.getLogger(LotteryService.class);
+
+    private final LotteryWindowRepository windowRepository;
+    private final LotteryEntryRepository entryRepository;
+    private final EnrollmentService enrollmentService;
+    private final long refreshIntervalMs;
+
+    // 课程ID -> 未分配完成的窗口
+    private final Map<String, LotteryWindow> activeWindows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lottery-window-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LotteryService(LotteryWindowRepository windowRepository,
+                          LotteryEntryRepository entryRepository,
+                          EnrollmentService enrollmentService,
+                          @Value("${enrollment.lottery.refresh-interval-ms:2000}") long refreshIntervalMs) {
+        this.windowRepository = windowRepository;
+        this.entryRepository = entryRepository;
+        this.enrollmentService = enrollmentService;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        refresh();
+        refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // ==================== 窗口 ====================
+
+    /**
+     * 课程是否处于抽签模式（存在未分配完成的窗口）
+     */
+    public boolean isLotteryActive(String courseId) {
+        return courseId != null && activeWindows.containsKey(courseId);
+    }
+
+    /**
+     * 为课程开启抽签窗口；同一课程同时只能有一个未分配完成的窗口
+     * 先查一次给出可读的错误；并发开窗口由唯一约束（open_course_id）拦下
+     */
+    public LotteryWindow openWindow(String courseId, LocalDateTime opensAt, LocalDateTime closesAt) {
+        if (courseId == null || courseId.trim().isEmpty()) {
+            throw new IllegalArgumentException("courseId 不能为空");
+        }
+        if (closesAt == null || !closesAt.isAfter(opensAt) || !closesAt.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("抽签窗口的关闭时间必须晚于开始时间和当前时间");
+        }
+        Optional<LotteryWindow> latest = windowRepository.findFirstByCourseIdOrderByIdDesc(courseId);
+        if (latest.isPresent() && latest.get().getStatus() != LotteryWindowStatus.ALLOCATED) {
+            throw new InvalidEnrollmentOperationException(
+                    String.format("课程[%s]已有未分配完成的抽签窗口（ID: %d）", courseId, latest.get().getId()));
+        }
+
+        LotteryWindow window = new LotteryWindow();
+        window.setCourseId(courseId);
+        window.setOpensAt(opensAt);
+        window.setClosesAt(closesAt);
+        try {
+            window = windowRepository.save(window);
+        } catch (DataIntegrityViolationException e) {
+            throw new InvalidEnrollmentOperationException(
+                    String.format("课程[%s]已有未分配完成的抽签窗口", courseId));
+        }
+        activeWindows.put(courseId, window);
+        log.info("🎲 开启抽签窗口 - windowId: {}, courseId: {}, {} ~ {}", window.getId(), courseId, opensAt, closesAt);
+        return window;
+    }
+
+    public Optional<LotteryWindow> latestWindow(String courseId) {
+        return windowRepository.findFirstByCourseIdOrderByIdDesc(courseId);
+    }
+
+    public long countEntries(Long windowId) {
+        return entryRepository.countByWindowId(windowId);
+    }
+
+    /**
+     * 分配完成后课程恢复先到先得（LotteryAllocator 调用）
+     */
+    void onAllocated(LotteryWindow window) {
+        activeWindows.computeIfPresent(window.getCourseId(),
+                (courseId, cached) -> cached.getId().equals(window.getId()) ? null : cached);
+    }
+
+    // ==================== 报名 ====================
+
+    /**
+     * 在课程当前的抽签窗口内报名；同一窗口重复报名返回原记录
+     */
+    public LotteryEntry submit(String courseId, String userId) {
+        LotteryWindow window = activeWindows.get(courseId);
+        if (window == null) {
+            throw new InvalidEnrollmentOperationException("课程[" + courseId + "]当前没有抽签窗口");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(window.getOpensAt())) {
+            throw new InvalidEnrollmentOperationException("抽签报名尚未开始，开始时间: " + window.getOpensAt());
+        }
+        if (!window.isAcceptingEntries(now)) {
+            throw new InvalidEnrollmentOperationException("抽签报名已截止，请等待分配结果");
+        }
+
+        enrollmentService.requireStudent(userId);
+
+        Optional<LotteryEntry> existing = entryRepository.findByWindowIdAndUserId(window.getId(), userId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        LotteryEntry entry = new LotteryEntry();
+        entry.setWindowId(window.getId());
+        entry.setCourseId(courseId);
+        entry.setUserId(userId);
+        try {
+            return entryRepository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            // 同一学生并发重复提交：唯一约束（window_id, user_id）拦下后返回先写入的那条
+            return entryRepository.findByWindowIdAndUserId(window.getId(), userId).orElseThrow(() -> e);
+        }
+    }
+
+    public Optional<LotteryEntry> findEntry(String courseId, String userId) {
+        return entryRepository.findFirstByCourseIdAndUserIdOrderByIdDesc(courseId, userId);
+    }
+
+    // ==================== 缓存刷新 ====================
+
+    private void refresh() {
+        try {
+            Map<String, LotteryWindow> latest = new ConcurrentHashMap<>();
+            for (LotteryWindow window : windowRepository.findByStatusNot(LotteryWindowStatus.ALLOCATED)) {
+                latest.merge(window.getCourseId(), window,
+                        (a, b) -> a.getId() > b.getId() ? a : b);
+            }
+            activeWindows.keySet().retainAll(latest.keySet());
+            activeWindows.putAll(latest);
+        } catch (Exception e) {
+            log.warn("⚠️ 刷新抽签窗口缓存失败: {}", e.getMessage());
+        }
+    }
+}
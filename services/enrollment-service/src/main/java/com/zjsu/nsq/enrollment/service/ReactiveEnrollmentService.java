@@ -0,0 +1,121 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.enrollment.client.ReactiveDownstreamClient;
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.dto.StudentDto;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 响应式选课流程（参数校验、容量 / 重复检查、插入都复用 EnrollmentService 的实现）
+ * - 学生、课程两次下游读并行发出（WebClient，非阻塞），等待期间不占线程
+ * - 课程只有降级缓存数据（stale）时选课 / 退课返回 503，与 Feign 流程一致
+ * - 重复检查 + 插入在同一个事务里，放到有界的 enrollmentJdbcScheduler 上执行
+ * - 课程人数回写是发出即忘的非阻塞请求
+ */
+@Service
+public class ReactiveEnrollmentService {
+
+    private final ReactiveDownstreamClient downstream;
+    private final EnrollmentService enrollmentService;
+    private final EnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+
+    public ReactiveEnrollmentService(ReactiveDownstreamClient downstream,
+                                     EnrollmentService enrollmentService,
+                                     EnrollmentRepository enrollmentRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Qualifier("enrollmentJdbcScheduler") Scheduler jdbcScheduler) {
+        this.downstream = downstream;
+        this.enrollmentService = enrollmentService;
+        this.enrollmentRepository = enrollmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcScheduler = jdbcScheduler;
+    }
+
+    // ==================== 核心业务方法 ====================
+
+    public Mono<Enrollment> enroll(String courseIdStr, String userIdStr) {
+        return Mono.defer(() -> {
+            EnrollmentService.validateEnrollmentParameters(courseIdStr, userIdStr);
+            Long courseId = EnrollmentService.convertToLong(courseIdStr, "课程ID");
+            Long userId = EnrollmentService.convertToLong(userIdStr, "用户ID");
+
+            Mono<StudentDto> student = downstream.getStudent(userId)
+                    .switchIfEmpty(Mono.error(() ->
+                            new EnrollmentService.StudentNotFoundException("用户不存在，userId: " + userId)));
+
+            return Mono.zip(student, freshCourse(courseId))
+                    .map(tuple -> {
+                        CourseDto.Data courseData = tuple.getT2().getData();
+                        EnrollmentService.checkCapacity(courseId, courseData);
+                        return courseData;
+                    })
+                    .flatMap(courseData -> blocking(() -> transactionTemplate.execute(status -> {
+                                // 已在事务中：EnrollmentWriteCombiner 直接插入，不进组提交队列
+                                enrollmentService.checkDuplicateEnrollment(courseIdStr, userIdStr);
+                                return enrollmentService.createEnrollment(courseIdStr, userIdStr);
+                            }))
+                            .doOnNext(enrollment -> downstream
+                                    .updateCourseEnrollment(courseId, courseData.getEnrolled() + 1)
+                                    .subscribe()));
+        });
+    }
+
+    public Mono<Enrollment> drop(Long enrollmentId) {
+        return blocking(() -> enrollmentRepository.findById(enrollmentId)
+                .orElseThrow(() -> new EnrollmentService.EnrollmentNotFoundException("选课记录不存在，ID: " + enrollmentId)))
+                .flatMap(enrollment -> {
+                    if (enrollment.getStatus() != EnrollmentStatus.ACTIVE) {
+                        return Mono.error(new EnrollmentService.InvalidEnrollmentOperationException(
+                                String.format("仅活跃状态的选课可退课（当前状态: %s）", enrollment.getStatus())));
+                    }
+                    Long courseId = EnrollmentService.convertToLong(enrollment.getCourseId(), "课程ID");
+                    return freshCourse(courseId)
+                            .flatMap(course -> blocking(() -> {
+                                enrollment.setStatus(EnrollmentStatus.DROPPED);
+                                return enrollmentRepository.save(enrollment);
+                            }).doOnNext(updated -> downstream
+                                    .updateCourseEnrollment(courseId, course.getData().getEnrolled() - 1)
+                                    .subscribe()));
+                });
+    }
+
+    public Mono<List<Enrollment>> findByUser(String userId) {
+        return blocking(() -> enrollmentRepository.findByUserId(userId));
+    }
+
+    // ==================== 私有辅助方法 ====================
+
+    /**
+     * 在有界 JDBC 调度器上执行阻塞调用；队列满时转成 503
+     */
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call)
+                .subscribeOn(jdbcScheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new ServiceUnavailableException("数据库访问排队已满，请稍后重试", e));
+    }
+
+    /**
+     * 选课 / 退课要回写已选人数，只接受课程服务的实时数据
+     */
+    private Mono<CourseDto> freshCourse(Long courseId) {
+        return downstream.getCourse(courseId)
+                .switchIfEmpty(Mono.error(() ->
+                        new EnrollmentService.CourseNotFoundException("课程不存在，courseId: " + courseId)))
+                .doOnNext(course -> EnrollmentService.requireFreshCourse(courseId, course));
+    }
+}
@@ -0,0 +1,51 @@
+package com.zjsu.nsq.enrollment.util;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限速日志：每个时间窗口内最多输出一条，其余只计数，
+ * 下一条输出时附带被抑制的条数。
+ * 被抑制的调用只做一次时间比较和一次计数，不格式化消息、不创建异常。
+ */
+public class RateLimitedLogger {
+
+    private final Logger delegate;
+    private final long intervalNanos;
+    private final AtomicLong nextAllowedAt = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger delegate, long interval, TimeUnit unit) {
+        this.delegate = delegate;
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    public void warn(String format, Object arg1, Object arg2) {
+        if (!delegate.isWarnEnabled() || !acquire()) {
+            return;
+        }
+        long dropped = suppressed.sumThenReset();
+        if (dropped > 0) {
+            delegate.warn(format + " (期间另有 {} 条相同日志被抑制)", arg1, arg2, dropped);
+        } else {
+            delegate.warn(format, arg1, arg2);
+        }
+    }
+
+    private boolean acquire() {
+        long now = System.nanoTime();
+        long allowedAt = nextAllowedAt.get();
+        if (allowedAt != Long.MIN_VALUE && now - allowedAt < 0) {
+            suppressed.increment();
+            return false;
+        }
+        if (nextAllowedAt.compareAndSet(allowedAt, now + intervalNanos)) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+}
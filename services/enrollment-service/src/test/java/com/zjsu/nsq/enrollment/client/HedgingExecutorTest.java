@@ -0,0 +1,167 @@
+package com.zjsu.nsq.enrollment.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingExecutorTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final HedgingExecutor executor = new HedgingExecutor(registry, 4);
+    private final CountDownLatch releasePrimary = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        releasePrimary.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void disabledExecutorCallsOnCallerThread() {
+        configure(false, 100, 50);
+        Thread caller = Thread.currentThread();
+
+        Thread[] ranOn = new Thread[1];
+        String result = executor.call("catalog", () -> {
+            ranOn[0] = Thread.currentThread();
+            return "course";
+        }, value -> true);
+
+        assertEquals("course", result);
+        assertSame(caller, ranOn[0]);
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndHedgeWins() {
+        configure(true, 100, 20);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.call("catalog", () -> {
+            if (calls.incrementAndGet() == 1) {
+                await(releasePrimary);
+                return "primary";
+            }
+            return "hedge";
+        }, value -> true);
+
+        assertEquals("hedge", result);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, count("catalog", "sent"));
+        assertEquals(1.0, count("catalog", "won"));
+    }
+
+    @Test
+    void unacceptableHedgeResultFallsBackToPrimary() {
+        configure(true, 100, 20);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.call("catalog", () -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(150);
+                return "primary";
+            }
+            return "fallback";
+        }, value -> !"fallback".equals(value));
+
+        assertEquals("primary", result);
+        assertEquals(2, calls.get());
+        assertEquals(0.0, count("catalog", "won"));
+    }
+
+    @Test
+    void noHedgeWithoutBudget() {
+        configure(true, 0, 20);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.call("catalog", () -> {
+            calls.incrementAndGet();
+            sleep(100);
+            return "primary";
+        }, value -> true);
+
+        assertEquals("primary", result);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, count("catalog", "budget_denied"));
+    }
+
+    @Test
+    void primaryFailureIsRethrownUnwrapped() {
+        configure(true, 100, 1000);
+        IllegalStateException failure = new IllegalStateException("下游不可用");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> executor.call("catalog", () -> {
+                    throw failure;
+                }, value -> true));
+
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void latencyWindowUsesMaxDelayUntilEnoughSamplesThenClampsP95() {
+        HedgingExecutor.LatencyWindow window = new HedgingExecutor.LatencyWindow();
+        for (int ms = 1; ms < 20; ms++) {
+            window.record(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+        assertEquals(1000, window.hedgeDelayMillis(5, 1000));
+
+        window.record(TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(19, window.hedgeDelayMillis(5, 1000));
+        assertEquals(50, window.hedgeDelayMillis(50, 1000));
+        assertEquals(10, window.hedgeDelayMillis(5, 10));
+    }
+
+    @Test
+    void budgetAllowsOneHedgePerTwentyCallsAtFivePercent() {
+        HedgingExecutor.HedgeBudget budget = new HedgingExecutor.HedgeBudget();
+        for (int i = 0; i < 19; i++) {
+            budget.deposit(5);
+        }
+        assertFalse(budget.tryWithdraw());
+
+        budget.deposit(5);
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    private void configure(boolean enabled, double budgetPercent, long maxDelayMs) {
+        ReflectionTestUtils.setField(executor, "enabled", enabled);
+        ReflectionTestUtils.setField(executor, "budgetPercent", budgetPercent);
+        ReflectionTestUtils.setField(executor, "minDelayMs", 1L);
+        ReflectionTestUtils.setField(executor, "maxDelayMs", maxDelayMs);
+    }
+
+    private double count(String client, String event) {
+        Counter counter = registry.find("enrollment.hedge").tag("client", client).tag("event", event).counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
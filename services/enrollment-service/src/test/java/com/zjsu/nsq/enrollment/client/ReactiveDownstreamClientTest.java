@@ -0,0 +1,74 @@
+package com.zjsu.nsq.enrollment.client;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveDownstreamClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final LastKnownGoodStore lastKnownGood = new LastKnownGoodStore(100);
+
+    @Test
+    void serverErrorWithoutCachedDataIsServiceUnavailable() {
+        ReactiveDownstreamClient client = client(HttpStatus.SERVICE_UNAVAILABLE);
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> client.getCourse(1L).block(TIMEOUT));
+        assertInstanceOf(WebClientResponseException.class, e.getCause());
+        assertThrows(ServiceUnavailableException.class, () -> client.getStudent(2L).block(TIMEOUT));
+    }
+
+    @Test
+    void connectionFailureWithoutCachedDataIsServiceUnavailable() {
+        ReactiveDownstreamClient client = new ReactiveDownstreamClient(
+                WebClient.builder().exchangeFunction(request -> Mono.error(new IOException("Connection refused"))).build(),
+                lastKnownGood, new PerfMetrics(new SimpleMeterRegistry()));
+
+        assertThrows(ServiceUnavailableException.class, () -> client.getCourse(1L).block(TIMEOUT));
+    }
+
+    @Test
+    void serverErrorWithCachedDataReturnsStaleCourse() {
+        CourseDto.Data data = new CourseDto.Data();
+        data.setId(1L);
+        CourseDto fresh = new CourseDto();
+        fresh.setCode(200);
+        fresh.setData(data);
+        lastKnownGood.rememberCourse(1L, fresh);
+
+        CourseDto course = client(HttpStatus.BAD_GATEWAY).getCourse(1L).block(TIMEOUT);
+
+        assertTrue(course.isStale());
+        assertEquals(Long.valueOf(1L), course.getData().getId());
+    }
+
+    @Test
+    void clientErrorMeansNotFound() {
+        assertNull(client(HttpStatus.NOT_FOUND).getCourse(1L).block(TIMEOUT));
+    }
+
+    private ReactiveDownstreamClient client(HttpStatus status) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status).build()))
+                .build();
+        return new ReactiveDownstreamClient(webClient, lastKnownGood, new PerfMetrics(new SimpleMeterRegistry()));
+    }
+}
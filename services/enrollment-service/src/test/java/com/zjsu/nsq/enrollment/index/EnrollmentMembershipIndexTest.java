@@ -0,0 +1,95 @@
+package com.zjsu.nsq.enrollment.index;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EnrollmentMembershipIndexTest {
+
+    private final EnrollmentRepository repository = mock(EnrollmentRepository.class);
+    private final EnrollmentMembershipIndex index = new EnrollmentMembershipIndex(repository,
+            mock(PlatformTransactionManager.class), new PerfMetrics(new SimpleMeterRegistry()), true, 0);
+
+    @Test
+    void notCoveredUntilFirstBuild() {
+        assertFalse(index.covers("1", "2"));
+    }
+
+    @Test
+    void rebuildLoadsActiveMemberships() {
+        when(repository.streamMemberships(EnrollmentStatus.ACTIVE))
+                .thenReturn(Stream.of(row("1", "2"), row("1", "3"), row("7", "2"), row("CS101", "2")));
+
+        index.rebuild();
+
+        assertTrue(index.covers("1", "2"));
+        assertTrue(index.isActive("1", "2"));
+        assertTrue(index.isActive("7", "2"));
+        assertFalse(index.isActive("7", "3"));
+        assertEquals(3, index.size());
+        // 非数字 ID 不进索引，调用方查库
+        assertFalse(index.covers("CS101", "2"));
+    }
+
+    @Test
+    void changesCommittedDuringRebuildAreReplayed() {
+        when(repository.streamMemberships(EnrollmentStatus.ACTIVE)).thenAnswer(invocation -> {
+            // 流式读取期间其他事务提交：一条新选课、一条退课（快照里仍是 ACTIVE）
+            index.update("1", "99", true);
+            index.update("1", "2", false);
+            return Stream.of(row("1", "2"), row("1", "3"));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.isActive("1", "99"));
+        assertFalse(index.isActive("1", "2"));
+        assertTrue(index.isActive("1", "3"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void failedRebuildKeepsThePreviousIndex() {
+        when(repository.streamMemberships(EnrollmentStatus.ACTIVE))
+                .thenReturn(Stream.of(row("1", "2")))
+                .thenThrow(new QueryTimeoutException("timeout"));
+        index.rebuild();
+
+        index.rebuild();
+
+        assertTrue(index.covers("1", "2"));
+        assertTrue(index.isActive("1", "2"));
+        // 失败的重建不能留下 journal：之后的增量变更照常生效
+        index.update("1", "2", false);
+        assertFalse(index.isActive("1", "2"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void onlyCanonicalNonNegativeIntIdsAreIndexable() {
+        assertEquals(0, EnrollmentMembershipIndex.toKey("0"));
+        assertEquals(42, EnrollmentMembershipIndex.toKey("42"));
+        assertEquals(Integer.MAX_VALUE, EnrollmentMembershipIndex.toKey("2147483647"));
+        assertEquals(-1, EnrollmentMembershipIndex.toKey("2147483648"));
+        assertEquals(-1, EnrollmentMembershipIndex.toKey("042"));
+        assertEquals(-1, EnrollmentMembershipIndex.toKey("-1"));
+        assertEquals(-1, EnrollmentMembershipIndex.toKey(""));
+        assertEquals(-1, EnrollmentMembershipIndex.toKey(null));
+    }
+
+    private static Object[] row(String courseId, String userId) {
+        return new Object[]{courseId, userId};
+    }
+}
@@ -0,0 +1,124 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommand;
+import com.zjsu.nsq.enrollment.model.EnrollmentCommandStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentCommandRepository;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import com.zjsu.nsq.enrollment.service.EnrollmentService.BatchEnrollResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnrollmentCommandWorkerTest {
+
+    // 命令ID -> {课程ID, 用户ID}
+    private static final Map<String, String[]> COMMANDS = Map.of(
+            "a", new String[]{"42", "1"},
+            "b", new String[]{"42", "2"},
+            "c", new String[]{"7", "3"});
+
+    private final EnrollmentCommandRepository commandRepository = mock(EnrollmentCommandRepository.class);
+    private final EnrollmentService enrollmentService = mock(EnrollmentService.class);
+    private EnrollmentCommandWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new EnrollmentCommandWorker(commandRepository, mock(EnrollmentRepository.class), enrollmentService,
+                mock(EnrollmentTicketNotifier.class), mock(LotteryService.class),
+                new PerfMetrics(new SimpleMeterRegistry()), true, 4, 200, 50, 5, 500, 60, 5000);
+        when(commandRepository.claim(any(), eq(EnrollmentCommandStatus.PENDING),
+                eq(EnrollmentCommandStatus.PROCESSING), any())).thenReturn(1);
+        when(commandRepository.findByIdIn(any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            List<EnrollmentCommand> commands = new ArrayList<>();
+            for (String id : ids) {
+                EnrollmentCommand command = new EnrollmentCommand();
+                command.setId(id);
+                command.setCourseId(COMMANDS.get(id)[0]);
+                command.setUserId(COMMANDS.get(id)[1]);
+                command.setStatus(EnrollmentCommandStatus.PROCESSING);
+                command.setAttempts(1);
+                commands.add(command);
+            }
+            return commands;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void overlappingGroupsForOneCourseRunOneAfterAnother() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        Map<String, Boolean> blocked = new ConcurrentHashMap<>();
+        when(enrollmentService.enrollBatch(eq("42"), anyList())).thenAnswer(invocation -> {
+            List<String> userIds = new ArrayList<>(invocation.getArgument(1));
+            batches.add(userIds);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (blocked.putIfAbsent("42", true) == null) {
+                    firstBatchStarted.countDown();
+                    releaseFirstBatch.await(5, TimeUnit.SECONDS);
+                }
+                return failedFor(userIds);
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        when(enrollmentService.enrollBatch(eq("7"), anyList()))
+                .thenAnswer(invocation -> failedFor(invocation.getArgument(1)));
+        when(commandRepository.findReadyIds(any(), any(), any()))
+                .thenReturn(List.of("a"), List.of("b"), List.of("c"));
+
+        worker.poll();
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        // 第一组还在处理时又认领到同一课程的命令：挂起，不能并发进入 enrollBatch
+        worker.poll();
+        // 其他课程不受影响
+        worker.poll();
+        verify(enrollmentService, timeout(2000)).enrollBatch(eq("7"), anyList());
+        verify(enrollmentService, times(1)).enrollBatch(eq("42"), anyList());
+
+        releaseFirstBatch.countDown();
+        verify(enrollmentService, timeout(2000).times(2)).enrollBatch(eq("42"), anyList());
+        assertEquals(1, maxRunning.get());
+        assertEquals(List.of(List.of("1"), List.of("2")), batches);
+    }
+
+    private static List<BatchEnrollResult> failedFor(List<String> userIds) {
+        List<BatchEnrollResult> results = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            results.add(new BatchEnrollResult(null, "课程已满", false));
+        }
+        return results;
+    }
+}
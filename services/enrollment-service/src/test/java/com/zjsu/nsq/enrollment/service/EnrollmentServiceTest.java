@@ -0,0 +1,118 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.commons.trace.Tracer;
+import com.zjsu.nsq.enrollment.client.CatalogClient;
+import com.zjsu.nsq.enrollment.client.HedgingExecutor;
+import com.zjsu.nsq.enrollment.client.LastKnownGoodStore;
+import com.zjsu.nsq.enrollment.client.UserClient;
+import com.zjsu.nsq.enrollment.dto.StudentDto;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.index.EnrollmentMembershipIndex;
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import com.zjsu.nsq.enrollment.service.EnrollmentService.DuplicateEnrollmentException;
+import com.zjsu.nsq.enrollment.service.EnrollmentService.StudentNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnrollmentServiceTest {
+
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final UserClient userClient = mock(UserClient.class);
+    private final EnrollmentMembershipIndex membershipIndex = mock(EnrollmentMembershipIndex.class);
+    private final Tracer tracer = mock(Tracer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // 未开启对冲：HedgingExecutor 直接在调用线程上执行
+    private final HedgingExecutor hedgingExecutor = new HedgingExecutor(meterRegistry, 1);
+    private final EnrollmentService service = new EnrollmentService(enrollmentRepository,
+            mock(LoadBalancerClient.class), mock(DiscoveryClient.class), userClient, mock(CatalogClient.class),
+            hedgingExecutor, new LastKnownGoodStore(100), new PerfMetrics(meterRegistry),
+            tracer, mock(EnrollmentWriteCombiner.class), membershipIndex, Runnable::run);
+
+    @BeforeEach
+    void setUp() {
+        when(tracer.inSpan(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedgingExecutor.shutdown();
+    }
+
+    @Test
+    void indexMissSkipsTheQuery() {
+        when(membershipIndex.covers("1", "2")).thenReturn(true);
+        when(membershipIndex.isActive("1", "2")).thenReturn(false);
+
+        assertDoesNotThrow(() -> service.checkDuplicateEnrollment("1", "2"));
+        verify(enrollmentRepository, never()).findByCourseIdAndUserIdAndStatus(any(), any(), any());
+    }
+
+    @Test
+    void indexHitIsConfirmedByTheDatabase() {
+        when(membershipIndex.covers("1", "2")).thenReturn(true);
+        when(membershipIndex.isActive("1", "2")).thenReturn(true);
+        when(enrollmentRepository.findByCourseIdAndUserIdAndStatus("1", "2", EnrollmentStatus.ACTIVE))
+                .thenReturn(Optional.of(new Enrollment()));
+
+        assertThrows(DuplicateEnrollmentException.class, () -> service.checkDuplicateEnrollment("1", "2"));
+    }
+
+    @Test
+    void staleIndexHitDoesNotRejectAfterDropOnAnotherInstance() {
+        // 本实例索引仍记着已选，但学生已在其他实例上退课
+        when(membershipIndex.covers("1", "2")).thenReturn(true);
+        when(membershipIndex.isActive("1", "2")).thenReturn(true);
+        when(enrollmentRepository.findByCourseIdAndUserIdAndStatus("1", "2", EnrollmentStatus.ACTIVE))
+                .thenReturn(Optional.empty());
+
+        assertDoesNotThrow(() -> service.checkDuplicateEnrollment("1", "2"));
+    }
+
+    @Test
+    void uncoveredPairFallsBackToTheDatabase() {
+        when(membershipIndex.covers("CS101", "2")).thenReturn(false);
+        when(enrollmentRepository.findByCourseIdAndUserIdAndStatus("CS101", "2", EnrollmentStatus.ACTIVE))
+                .thenReturn(Optional.of(new Enrollment()));
+
+        assertThrows(DuplicateEnrollmentException.class, () -> service.checkDuplicateEnrollment("CS101", "2"));
+    }
+
+    @Test
+    void userServiceFallbackIsServiceUnavailableNotMissingStudent() {
+        StudentDto unavailable = new StudentDto();
+        unavailable.setCode(503);
+        unavailable.setMessage("用户服务暂时不可用");
+        when(userClient.getStudent(2L)).thenReturn(unavailable);
+
+        assertThrows(ServiceUnavailableException.class, () -> service.requireStudent("2"));
+    }
+
+    @Test
+    void missingStudentIsStudentNotFound() {
+        StudentDto missing = new StudentDto();
+        missing.setCode(404);
+        when(userClient.getStudent(2L)).thenReturn(missing);
+
+        StudentNotFoundException e = assertThrows(StudentNotFoundException.class, () -> service.requireStudent("2"));
+        assertEquals("用户不存在，userId: 2", e.getMessage());
+    }
+}
@@ -0,0 +1,143 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.exception.ServiceUnavailableException;
+import com.zjsu.nsq.enrollment.model.Enrollment;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnrollmentWriteCombinerTest {
+
+    private final EnrollmentRepository repository = mock(EnrollmentRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private EnrollmentWriteCombiner combiner;
+
+    @AfterEach
+    void tearDown() {
+        if (combiner != null) {
+            combiner.shutdown();
+        }
+    }
+
+    @Test
+    void rolledBackBatchIsRetriedRowByRow() {
+        when(repository.save(any(Enrollment.class))).thenAnswer(invocation -> {
+            Enrollment enrollment = invocation.getArgument(0);
+            if ("2".equals(enrollment.getUserId())) {
+                throw new DataIntegrityViolationException("uk_course_user");
+            }
+            return enrollment;
+        });
+        // 等待窗口足够长，三条插入落在同一批
+        combiner = start(3, 1000, 10);
+
+        CompletableFuture<Enrollment> first = combiner.submit("100", "1");
+        CompletableFuture<Enrollment> duplicate = combiner.submit("100", "2");
+        CompletableFuture<Enrollment> third = combiner.submit("100", "3");
+
+        assertEquals("1", EnrollmentWriteCombiner.await(first).getUserId());
+        assertEquals("3", EnrollmentWriteCombiner.await(third).getUserId());
+        assertThrows(DataIntegrityViolationException.class, () -> EnrollmentWriteCombiner.await(duplicate));
+        // 整批事务回滚一次，逐条重试时只有出错的那条再回滚一次
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void duplicateWithinBatchFailsWithoutRollingBackOthers() {
+        when(repository.save(any(Enrollment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        combiner = start(3, 1000, 10);
+
+        CompletableFuture<Enrollment> first = combiner.submit("100", "1");
+        CompletableFuture<Enrollment> again = combiner.submit("100", "1");
+        CompletableFuture<Enrollment> other = combiner.submit("100", "2");
+
+        assertEquals("1", EnrollmentWriteCombiner.await(first).getUserId());
+        assertEquals("2", EnrollmentWriteCombiner.await(other).getUserId());
+        assertThrows(DataIntegrityViolationException.class, () -> EnrollmentWriteCombiner.await(again));
+        verify(repository, times(2)).save(any(Enrollment.class));
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(0)).rollback(any());
+    }
+
+    @Test
+    void fullQueueIsRejectedWithServiceUnavailable() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstSave(saving, release);
+        combiner = start(1, 0, 1);
+
+        CompletableFuture<Enrollment> inFlight = combiner.submit("100", "1");
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Enrollment> queued = combiner.submit("100", "2");
+        CompletableFuture<Enrollment> rejected = combiner.submit("100", "3");
+
+        assertThrows(ServiceUnavailableException.class, () -> EnrollmentWriteCombiner.await(rejected));
+        release.countDown();
+        assertEquals("1", EnrollmentWriteCombiner.await(inFlight).getUserId());
+        assertEquals("2", EnrollmentWriteCombiner.await(queued).getUserId());
+    }
+
+    @Test
+    void shutdownFailsInsertsStillQueued() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstSave(saving, release);
+        combiner = start(1, 0, 10);
+
+        CompletableFuture<Enrollment> inFlight = combiner.submit("100", "1");
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Enrollment> queued = combiner.submit("100", "2");
+
+        Thread stopper = new Thread(combiner::shutdown);
+        stopper.start();
+        // shutdown 已置 running=false 并在等刷写线程退出
+        while (stopper.getState() != Thread.State.TIMED_WAITING && stopper.isAlive()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        stopper.join(TimeUnit.SECONDS.toMillis(10));
+
+        // 正在提交的批次照常完成，队列里剩下的直接失败，不会让调用方一直等
+        assertEquals("1", EnrollmentWriteCombiner.await(inFlight).getUserId());
+        assertTrue(queued.isDone());
+        assertThrows(ServiceUnavailableException.class, () -> EnrollmentWriteCombiner.await(queued));
+    }
+
+    private void blockFirstSave(CountDownLatch saving, CountDownLatch release) {
+        when(repository.save(any(Enrollment.class))).thenAnswer(invocation -> {
+            Enrollment enrollment = invocation.getArgument(0);
+            if ("1".equals(enrollment.getUserId())) {
+                saving.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return enrollment;
+        });
+    }
+
+    private EnrollmentWriteCombiner start(int maxBatch, long maxWaitMs, int maxPending) {
+        EnrollmentWriteCombiner started = new EnrollmentWriteCombiner(repository,
+                new TransactionTemplate(transactionManager), new PerfMetrics(new SimpleMeterRegistry()),
+                true, maxBatch, maxWaitMs, 1, maxPending);
+        started.start();
+        return started;
+    }
+}
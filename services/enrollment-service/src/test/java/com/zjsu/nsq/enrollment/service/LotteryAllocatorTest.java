@@ -0,0 +1,143 @@
+package com.zjsu.nsq.enrollment.service;
+
+import com.zjsu.nsq.commons.metrics.PerfMetrics;
+import com.zjsu.nsq.enrollment.dto.CourseDto;
+import com.zjsu.nsq.enrollment.model.EnrollmentStatus;
+import com.zjsu.nsq.enrollment.model.LotteryEntry;
+import com.zjsu.nsq.enrollment.model.LotteryEntryStatus;
+import com.zjsu.nsq.enrollment.model.LotteryWindow;
+import com.zjsu.nsq.enrollment.model.LotteryWindowStatus;
+import com.zjsu.nsq.enrollment.repository.EnrollmentRepository;
+import com.zjsu.nsq.enrollment.repository.LotteryEntryRepository;
+import com.zjsu.nsq.enrollment.repository.LotteryWindowRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LotteryAllocatorTest {
+
+    private static final String COURSE_ID = "42";
+
+    private final LotteryWindowRepository windowRepository = mock(LotteryWindowRepository.class);
+    private final LotteryEntryRepository entryRepository = mock(LotteryEntryRepository.class);
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final EnrollmentService enrollmentService = mock(EnrollmentService.class);
+    private final LotteryService lotteryService = mock(LotteryService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private LotteryAllocator allocator;
+    private LotteryWindow window;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new LotteryAllocator(windowRepository, entryRepository, enrollmentRepository,
+                enrollmentService, lotteryService, new TransactionTemplate(transactionManager),
+                new PerfMetrics(new SimpleMeterRegistry()), 1000, 0, 300);
+
+        window = new LotteryWindow();
+        window.setCourseId(COURSE_ID);
+        window.setStatus(LotteryWindowStatus.OPEN);
+        window.setOpensAt(LocalDateTime.now().minusMinutes(10));
+        window.setClosesAt(LocalDateTime.now().minusMinutes(1));
+        when(windowRepository.findDue(eq(LotteryWindowStatus.OPEN), any())).thenReturn(List.of(window));
+        when(windowRepository.claim(any(), eq(LotteryWindowStatus.OPEN), eq(LotteryWindowStatus.ALLOCATING), any()))
+                .thenReturn(1);
+        when(windowRepository.save(any(LotteryWindow.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(enrollmentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(entryRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void seatsComeFromActiveEnrollmentsNotTheCatalogCounter() {
+        // 课程服务的已选人数丢过更新（显示 0），本服务实际已有 1 条 ACTIVE 记录
+        when(enrollmentService.loadCourseForAllocation(COURSE_ID)).thenReturn(course(3, 0));
+        when(enrollmentRepository.countByCourseIdAndStatus(COURSE_ID, EnrollmentStatus.ACTIVE)).thenReturn(1L);
+        when(enrollmentRepository.findUserIdsByCourse(COURSE_ID)).thenReturn(List.of("9", "4"));
+        List<LotteryEntry> entries = List.of(entry("1"), entry("2"), entry("3"), entry("4"));
+        when(entryRepository.findByWindowIdAndStatus(any(), eq(LotteryEntryStatus.PENDING))).thenReturn(entries);
+
+        allocator.poll();
+
+        Map<String, LotteryEntry> byUser = entries.stream()
+                .collect(Collectors.toMap(LotteryEntry::getUserId, Function.identity()));
+        assertEquals(LotteryEntryStatus.REJECTED, byUser.get("4").getStatus());
+        long admitted = entries.stream().filter(e -> e.getStatus() == LotteryEntryStatus.ADMITTED).count();
+        long waitlisted = entries.stream().filter(e -> e.getStatus() == LotteryEntryStatus.WAITLISTED).count();
+        assertEquals(2, admitted);
+        assertEquals(1, waitlisted);
+
+        assertEquals(LotteryWindowStatus.ALLOCATED, window.getStatus());
+        assertEquals(Integer.valueOf(2), window.getAdmitted());
+        assertEquals(Integer.valueOf(1), window.getWaitlisted());
+        // 回写的人数 = ACTIVE 记录数 + 本次录取
+        verify(enrollmentService).publishCourseEnrollmentCount(COURSE_ID, 3);
+        verify(lotteryService).onAllocated(window);
+    }
+
+    @Test
+    void noSeatsLeftWaitlistsEveryone() {
+        when(enrollmentService.loadCourseForAllocation(COURSE_ID)).thenReturn(course(2, 0));
+        when(enrollmentRepository.countByCourseIdAndStatus(COURSE_ID, EnrollmentStatus.ACTIVE)).thenReturn(2L);
+        when(enrollmentRepository.findUserIdsByCourse(COURSE_ID)).thenReturn(List.of());
+        List<LotteryEntry> entries = List.of(entry("1"), entry("2"));
+        when(entryRepository.findByWindowIdAndStatus(any(), eq(LotteryEntryStatus.PENDING))).thenReturn(entries);
+
+        allocator.poll();
+
+        entries.forEach(e -> assertEquals(LotteryEntryStatus.WAITLISTED, e.getStatus()));
+        assertEquals(Integer.valueOf(0), window.getAdmitted());
+        verify(enrollmentService, never()).publishCourseEnrollmentCount(any(), anyInt());
+    }
+
+    @Test
+    void failedAllocationReleasesTheWindow() {
+        when(enrollmentService.loadCourseForAllocation(COURSE_ID)).thenReturn(course(3, 0));
+        when(enrollmentRepository.countByCourseIdAndStatus(COURSE_ID, EnrollmentStatus.ACTIVE)).thenReturn(0L);
+        when(enrollmentRepository.findUserIdsByCourse(COURSE_ID)).thenReturn(List.of());
+        when(entryRepository.findByWindowIdAndStatus(any(), eq(LotteryEntryStatus.PENDING)))
+                .thenReturn(List.of(entry("1")));
+        when(enrollmentRepository.saveAll(anyList())).thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        allocator.poll();
+
+        verify(windowRepository).release(any(), eq(LotteryWindowStatus.ALLOCATING), eq(LotteryWindowStatus.OPEN));
+        verify(enrollmentService, never()).publishCourseEnrollmentCount(any(), anyInt());
+        verify(lotteryService, never()).onAllocated(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    private static CourseDto.Data course(int capacity, int enrolled) {
+        CourseDto.Data course = new CourseDto.Data();
+        course.setId(Long.valueOf(COURSE_ID));
+        course.setCapacity(capacity);
+        course.setEnrolled(enrolled);
+        return course;
+    }
+
+    private static LotteryEntry entry(String userId) {
+        LotteryEntry entry = new LotteryEntry();
+        entry.setCourseId(COURSE_ID);
+        entry.setUserId(userId);
+        entry.setStatus(LotteryEntryStatus.PENDING);
+        return entry;
+    }
+}
@@ -0,0 +1,26 @@
+package com.zjsu.nsq.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JWT 认证白名单（gateway.auth.whitelist，见 application.yml），按路径前缀匹配
+ * JwtAuthenticationFilter 启动时把它编译成 PathPrefixTrie
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.auth")
+public class AuthWhitelistProperties {
+
+    private List<String> whitelist = new ArrayList<>();
+
+    public List<String> getWhitelist() {
+        return whitelist;
+    }
+
+    public void setWhitelist(List<String> whitelist) {
+        this.whitelist = whitelist;
+    }
+}
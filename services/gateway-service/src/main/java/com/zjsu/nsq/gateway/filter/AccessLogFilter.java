@@ -0,0 +1,102 @@
+package com.zjsu.nsq.gateway.filter;
+
+import com.zjsu.nsq.commons.trace.TraceContext;
+import com.zjsu.nsq.commons.trace.TraceContextHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 网关访问日志（全局过滤器）
+ * - 每个请求结束时最多输出一条 key=value 记录：路由、状态码、耗时、用户、上游地址
+ * - 正常请求按采样率记录；5xx、异常、慢请求始终记录
+ * - 写入 nsq.request.access logger，沿用 nsq.request 的异步 appender（见 performance-commons 的 logback/base.xml）
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("nsq.request.access");
+
+    // JwtAuthenticationFilter 认证成功后写入的用户 ID（exchange 属性在 mutate 后仍然共享）
+    public static final String USER_ID_ATTR = AccessLogFilter.class.getName() + ".userId";
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(@Value("${gateway.access-log.sample-rate:0.05}") double sampleRate,
+                           @Value("${gateway.access-log.slow-threshold-ms:1000}") long slowThresholdMs) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!accessLog.isInfoEnabled()) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, System.nanoTime() - start));
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long elapsedNanos) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!failed && !slow && !sampled()) {
+            return;
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI upstream = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        String userId = exchange.getAttribute(USER_ID_ATTR);
+        TraceContext trace = exchange.getAttribute(TracePropagationFilter.TRACE_CONTEXT_ATTR);
+
+        // 响应式线程上没有请求级 MDC，写日志的这一刻临时挂上，trace_id / request_id 与下游服务的日志一致
+        TraceContext previous = TraceContextHolder.attach(trace);
+        try {
+            accessLog.info("route={} method={} path=\"{}\" status={} latency_ms={} user={} upstream=\"{}\" signal={}",
+                    route != null ? route.getId() : "-",
+                    request.getMethod().name(),
+                    request.getPath().value(),
+                    status != null ? status.value() : 0,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    userId != null ? userId : "-",
+                    upstream != null ? upstream : "-",
+                    signal);
+        } finally {
+            TraceContextHolder.restore(previous);
+        }
+    }
+
+    private boolean sampled() {
+        if (sampleRate >= 1) {
+            return true;
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    @Override
+    public int getOrder() {
+        // 最外层，耗时包含所有过滤器和上游调用
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
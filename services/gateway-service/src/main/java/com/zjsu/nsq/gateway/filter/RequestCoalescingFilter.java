@@ -0,0 +1,246 @@
+package com.zjsu.nsq.gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求合并过滤器（single-flight）
+ * 同一时刻到达的相同 GET 请求只向下游转发一次，响应缓冲后分发给所有等待者。
+ * 等待者拿到的是领头请求的响应头和响应体，所以 Accept / Accept-Encoding 不同的请求不合并。
+ * 需要在路由上显式声明才会生效（按路由开启）。
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescingFilter.class);
+
+    // 正在进行中的上游请求：key -> 飞行中的请求
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!config.isEnabled() || request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = requestKey(request, config);
+            InFlight fresh = new InFlight();
+            InFlight existing = inFlight.putIfAbsent(key, fresh);
+
+            // 1. 没有相同的请求在进行中：本请求作为领头请求转发到下游
+            if (existing == null) {
+                return lead(key, fresh, exchange, chain, config);
+            }
+
+            // 2. 等待者数量超过上限：不再合并，直接转发
+            if (!existing.tryJoin(config.getMaxWaiters())) {
+                return chain.filter(exchange);
+            }
+
+            // 3. 等待领头请求的结果；领头请求失败或响应不可共享时退回到正常转发
+            return existing.result.asMono()
+                    .flatMap(shared -> writeShared(exchange.getResponse(), shared))
+                    .switchIfEmpty(Mono.defer(() -> chain.filter(exchange)));
+        };
+    }
+
+    private Mono<Void> lead(String key, InFlight flight, ServerWebExchange exchange,
+                            GatewayFilterChain chain, Config config) {
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if (status == null || !status.is2xxSuccessful()) {
+                    flight.abandon();
+                    return super.writeWith(body);
+                }
+                // 边转发边复制：超过上限则放弃合并，不影响领头请求本身
+                BodyCopy copy = new BodyCopy(config.getMaxBodyBytes());
+                Flux<DataBuffer> tee = Flux.from(body)
+                        .map(copy::append)
+                        .doOnComplete(() -> {
+                            byte[] bytes = copy.toByteArray();
+                            if (bytes != null) {
+                                flight.complete(new SharedResponse(status,
+                                        HttpHeaders.readOnlyHttpHeaders(getHeaders()), bytes));
+                            }
+                        });
+                return super.writeWith(tee);
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, flight);
+                    flight.abandon();
+                    if (flight.waiters.get() > 0) {
+                        logger.debug("合并请求完成: {}, 等待者: {}", key, flight.waiters.get());
+                    }
+                });
+    }
+
+    private Mono<Void> writeShared(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        shared.headers().forEach((name, values) -> {
+            if (!response.getHeaders().containsKey(name)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    // 包内可见：单元测试直接校验合并键
+    String requestKey(ServerHttpRequest request, Config config) {
+        String query = request.getURI().getRawQuery();
+        StringBuilder key = new StringBuilder(64).append(request.getURI().getRawPath());
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        // 响应内容协商相关的请求头：gzip 响应不能分给不接受 gzip 的客户端
+        HttpHeaders headers = request.getHeaders();
+        key.append('#').append(String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT)))
+                .append('#').append(String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)));
+        if (config.isVaryByUser()) {
+            String userId = request.getHeaders().getFirst("X-User-Id");
+            key.append('#').append(userId != null ? userId : "");
+        }
+        return key.toString();
+    }
+
+    /**
+     * 领头请求响应体的副本（有上限）
+     */
+    private static final class BodyCopy {
+        private final int limit;
+        private ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+        BodyCopy(int limit) {
+            this.limit = limit;
+        }
+
+        DataBuffer append(DataBuffer buffer) {
+            if (out == null) {
+                return buffer;
+            }
+            int length = buffer.readableByteCount();
+            if (out.size() + length > limit) {
+                out = null;
+                return buffer;
+            }
+            ByteBuffer chunk = ByteBuffer.allocate(length);
+            buffer.toByteBuffer(buffer.readPosition(), chunk, 0, length);
+            out.write(chunk.array(), 0, length);
+            return buffer;
+        }
+
+        byte[] toByteArray() {
+            return out != null ? out.toByteArray() : null;
+        }
+    }
+
+    /**
+     * 一次飞行中的上游请求
+     */
+    private static final class InFlight {
+        private final Sinks.One<SharedResponse> result = Sinks.one();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        boolean tryJoin(int maxWaiters) {
+            while (true) {
+                int current = waiters.get();
+                if (current >= maxWaiters) {
+                    return false;
+                }
+                if (waiters.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void complete(SharedResponse response) {
+            result.tryEmitValue(response);
+        }
+
+        void abandon() {
+            result.tryEmitEmpty();
+        }
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    public static class Config {
+        // 配置属性
+        private boolean enabled = true;
+        // 单个飞行请求允许挂靠的最大等待者数量
+        private int maxWaiters = 256;
+        // 可缓冲分发的最大响应体（字节）
+        private int maxBodyBytes = 256 * 1024;
+        // 是否按用户区分（响应内容与用户相关的路由需要开启）
+        private boolean varyByUser = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxWaiters() {
+            return maxWaiters;
+        }
+
+        public void setMaxWaiters(int maxWaiters) {
+            this.maxWaiters = maxWaiters;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        public boolean isVaryByUser() {
+            return varyByUser;
+        }
+
+        public void setVaryByUser(boolean varyByUser) {
+            this.varyByUser = varyByUser;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "RequestCoalescingFilter";
+    }
+}
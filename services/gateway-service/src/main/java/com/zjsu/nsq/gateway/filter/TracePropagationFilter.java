@@ -0,0 +1,74 @@
+package com.zjsu.nsq.gateway.filter;
+
+import com.zjsu.nsq.commons.trace.TraceContext;
+import com.zjsu.nsq.commons.trace.Tracer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 调用链传播（全局过滤器）
+ * - 继续客户端传来的 W3C traceparent，没有时新建；X-Request-Id 缺失时用网关的请求 ID
+ * - 向下游转发新的 traceparent（父 span 为网关 span）和 X-Request-Id，响应头带回 X-Request-Id
+ * - 网关 span 记录到本实例的 SpanStore（/actuator/traces）
+ */
+@Component
+public class TracePropagationFilter implements GlobalFilter, Ordered {
+
+    // 当前请求的 TraceContext（AccessLogFilter 读取）
+    public static final String TRACE_CONTEXT_ATTR = TracePropagationFilter.class.getName() + ".context";
+
+    private final Tracer tracer;
+
+    public TracePropagationFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders headers = request.getHeaders();
+        String requestId = headers.getFirst(TraceContext.REQUEST_ID_HEADER);
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+
+        Tracer.ActiveSpan span = tracer.startServerSpan(
+                headers.getFirst(TraceContext.TRACEPARENT_HEADER),
+                requestId != null ? requestId : request.getId(),
+                "gateway " + (route != null ? route.getId() : request.getPath().value()));
+        TraceContext context = span.context();
+        exchange.getAttributes().put(TRACE_CONTEXT_ATTR, context);
+
+        ServerHttpRequest forwarded = request.mutate()
+                .header(TraceContext.TRACEPARENT_HEADER, context.traceparent())
+                .header(TraceContext.REQUEST_ID_HEADER, context.requestId())
+                .build();
+        exchange.getResponse().getHeaders().set(TraceContext.REQUEST_ID_HEADER, context.requestId());
+
+        return chain.filter(exchange.mutate().request(forwarded).build())
+                .doFinally(signal -> span.end(outcome(exchange, signal)));
+    }
+
+    private String outcome(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.ON_ERROR) {
+            return "error";
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null ? status.value() / 100 + "xx" : signal.toString();
+    }
+
+    @Override
+    public int getOrder() {
+        // 紧跟 AccessLogFilter，在认证等过滤器之前
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
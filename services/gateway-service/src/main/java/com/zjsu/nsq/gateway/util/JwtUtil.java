@@ -2,12 +2,14 @@ package com.zjsu.nsq.gateway.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,8 +25,20 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
 
+    // 签名密钥和解析器是线程安全的，启动时构建一次，避免每次验证都重新派生密钥
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
     }
 
     public String generateToken(String userId, String username, String role) {
@@ -47,25 +61,23 @@ public class JwtUtil {
 
     public Claims parseToken(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
+            return parser
                     .parseClaimsJws(token)
                     .getBody();
         } catch (ExpiredJwtException e) {
-            logger.warn("Token 已过期: {}", e.getMessage());
+            logger.debug("Token 已过期: {}", e.getMessage());
             throw e;
         } catch (UnsupportedJwtException e) {
-            logger.warn("不支持的 Token 格式: {}", e.getMessage());
+            logger.debug("不支持的 Token 格式: {}", e.getMessage());
             throw e;
         } catch (MalformedJwtException e) {
-            logger.warn("Token 格式错误: {}", e.getMessage());
+            logger.debug("Token 格式错误: {}", e.getMessage());
             throw e;
         } catch (SignatureException e) {
-            logger.warn("Token 签名验证失败: {}", e.getMessage());
+            logger.debug("Token 签名验证失败: {}", e.getMessage());
             throw e;
         } catch (IllegalArgumentException e) {
-            logger.warn("Token 参数错误: {}", e.getMessage());
+            logger.debug("Token 参数错误: {}", e.getMessage());
             throw e;
         }
     }
@@ -75,7 +87,7 @@ public class JwtUtil {
             parseToken(token);
             return true;
         } catch (Exception e) {
-            logger.warn("Token 验证失败: {}", e.getMessage());
+            logger.debug("Token 验证失败: {}", e.getMessage());
             return false;
         }
     }
@@ -0,0 +1,98 @@
+package com.zjsu.nsq.gateway.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 路径前缀字典树（只读）
+ * 语义等同于对每个前缀做 {@code path.startsWith(prefix)}，
+ * 但每次匹配只按路径字符向下走一遍，不随白名单条目数增长，也不分配对象。
+ */
+public final class PathPrefixTrie {
+
+    private final Node root;
+
+    private PathPrefixTrie(Node root) {
+        this.root = root;
+    }
+
+    public static PathPrefixTrie compile(Collection<String> prefixes) {
+        Builder root = new Builder();
+        for (String prefix : prefixes) {
+            if (prefix == null || prefix.isEmpty()) {
+                continue;
+            }
+            Builder node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            node.terminal = true;
+        }
+        return new PathPrefixTrie(root.build());
+    }
+
+    /**
+     * path 是否以任意一个前缀开头
+     */
+    public boolean matches(String path) {
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            if (node.terminal) {
+                return true;
+            }
+            node = node.next(path.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+        return node.terminal;
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 编译后的节点：子节点按字符排序，二分查找
+     */
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final boolean terminal;
+
+        Node(char[] keys, Node[] children, boolean terminal) {
+            this.keys = keys;
+            this.children = children;
+            this.terminal = terminal;
+        }
+
+        Node next(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * 构建期使用的可变节点
+     */
+    private static final class Builder {
+        private final TreeMap<Character, Builder> children = new TreeMap<>();
+        private boolean terminal;
+
+        Builder child(char c) {
+            return children.computeIfAbsent(c, key -> new Builder());
+        }
+
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i] = entry.getValue().build();
+                i++;
+            }
+            return new Node(keys, nodes, terminal);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.zjsu.nsq.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RequestCoalescingFilterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final RequestCoalescingFilter factory = new RequestCoalescingFilter();
+    private final GatewayFilter filter = factory.apply(new RequestCoalescingFilter.Config());
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+    // 领头请求在下游“卡住”，直到测试放行
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+
+    @Test
+    void waiterReceivesLeaderResponse() {
+        MockServerWebExchange leader = exchange("gzip");
+        MockServerWebExchange waiter = exchange("gzip");
+
+        filter.filter(leader, respondAfterGate("courses")).subscribe();
+        Mono<Void> wait = filter.filter(waiter, respond("own"));
+        gate.tryEmitEmpty();
+        wait.block(TIMEOUT);
+
+        assertEquals(1, downstreamCalls.get());
+        assertEquals("courses", body(waiter));
+        assertEquals("courses", body(leader));
+    }
+
+    @Test
+    void waiterFallsBackToOwnCallWhenLeaderFails() {
+        MockServerWebExchange leader = exchange("gzip");
+        MockServerWebExchange waiter = exchange("gzip");
+        GatewayFilterChain failing = exchange -> {
+            downstreamCalls.incrementAndGet();
+            return gate.asMono().then(Mono.error(new IllegalStateException("下游连接失败")));
+        };
+
+        filter.filter(leader, failing).subscribe(null, error -> { });
+        Mono<Void> wait = filter.filter(waiter, respond("own"));
+        gate.tryEmitEmpty();
+        wait.block(TIMEOUT);
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals("own", body(waiter));
+    }
+
+    @Test
+    void waiterFallsBackToOwnCallWhenLeaderResponseIsNotSuccessful() {
+        MockServerWebExchange leader = exchange("gzip");
+        MockServerWebExchange waiter = exchange("gzip");
+        GatewayFilterChain unavailable = exchange -> {
+            downstreamCalls.incrementAndGet();
+            return gate.asMono().then(write(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, "busy"));
+        };
+
+        filter.filter(leader, unavailable).subscribe();
+        Mono<Void> wait = filter.filter(waiter, respond("own"));
+        gate.tryEmitEmpty();
+        wait.block(TIMEOUT);
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(HttpStatus.OK, waiter.getResponse().getStatusCode());
+        assertEquals("own", body(waiter));
+    }
+
+    @Test
+    void cancelledWaiterDoesNotAffectLeaderOrLaterRequests() {
+        MockServerWebExchange leader = exchange("gzip");
+        MockServerWebExchange waiter = exchange("gzip");
+
+        filter.filter(leader, respondAfterGate("courses")).subscribe();
+        Disposable cancelled = filter.filter(waiter, respond("own")).subscribe();
+        cancelled.dispose();
+        gate.tryEmitEmpty();
+
+        assertEquals("courses", body(leader));
+        assertFalse(waiter.getResponse().isCommitted());
+
+        // 飞行中的请求已结束：下一个请求重新作为领头请求转发
+        MockServerWebExchange next = exchange("gzip");
+        filter.filter(next, respond("fresh")).block(TIMEOUT);
+        assertEquals(2, downstreamCalls.get());
+        assertEquals("fresh", body(next));
+    }
+
+    @Test
+    void requestsWithDifferentContentNegotiationAreNotCoalesced() {
+        MockServerWebExchange gzip = exchange("gzip");
+        MockServerWebExchange identity = exchange(null);
+
+        filter.filter(gzip, respondAfterGate("compressed")).subscribe();
+        Mono<Void> plain = filter.filter(identity, respond("plain"));
+        plain.block(TIMEOUT);
+        gate.tryEmitEmpty();
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals("plain", body(identity));
+        assertEquals("compressed", body(gzip));
+    }
+
+    @Test
+    void requestKeyVariesByAcceptAndAcceptEncoding() {
+        RequestCoalescingFilter.Config config = new RequestCoalescingFilter.Config();
+        String json = factory.requestKey(MockServerHttpRequest.get("/api/courses?page=1")
+                .header(HttpHeaders.ACCEPT, "application/json").build(), config);
+        String jsonAgain = factory.requestKey(MockServerHttpRequest.get("/api/courses?page=1")
+                .header(HttpHeaders.ACCEPT, "application/json").build(), config);
+        String xml = factory.requestKey(MockServerHttpRequest.get("/api/courses?page=1")
+                .header(HttpHeaders.ACCEPT, "application/xml").build(), config);
+        String gzip = factory.requestKey(MockServerHttpRequest.get("/api/courses?page=1")
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(), config);
+
+        assertEquals(json, jsonAgain);
+        assertNotEquals(json, xml);
+        assertNotEquals(json, gzip);
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/courses")
+                .header(HttpHeaders.ACCEPT, "application/json");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private GatewayFilterChain respondAfterGate(String body) {
+        return exchange -> {
+            downstreamCalls.incrementAndGet();
+            return gate.asMono().then(write(exchange.getResponse(), HttpStatus.OK, body));
+        };
+    }
+
+    private GatewayFilterChain respond(String body) {
+        return exchange -> {
+            downstreamCalls.incrementAndGet();
+            return write(exchange.getResponse(), HttpStatus.OK, body);
+        };
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatus status, String body) {
+        return Mono.defer(() -> {
+            response.setStatusCode(status);
+            return response.writeWith(Mono.just(response.bufferFactory()
+                    .wrap(body.getBytes(StandardCharsets.UTF_8))));
+        });
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(TIMEOUT);
+    }
+}
@@ -1,33 +0,0 @@
-package com.zjsu.nsq.user.common;
-
-/**
- * 统一接口响应格式（与其他服务保持一致）
- */
-public class ApiResponse<T> {
-    private int code;
-    private String message;
-    private T data;
-
-    private ApiResponse(int code, String message, T data) {
-        this.code = code;
-        this.message = message;
-        this.data = data;
-    }
-
-    public static <T> ApiResponse<T> success(T data) {
-        return new ApiResponse<>(200, "操作成功", data);
-    }
-
-    public static <T> ApiResponse<T> success() {
-        return new ApiResponse<>(200, "操作成功", null);
-    }
-
-    public static <T> ApiResponse<T> error(int code, String message) {
-        return new ApiResponse<>(code, message, null);
-    }
-
-    // Getter（无Setter）
-    public int getCode() { return code; }
-    public String getMessage() { return message; }
-    public T getData() { return data; }
-}
\ No newline at end of file
@@ -1,19 +1,23 @@
 package com.zjsu.nsq.user.controller;
 
+import com.zjsu.nsq.commons.instance.InstanceIdentity;
+import com.zjsu.nsq.commons.instance.LoadBalancedRequestLogger;
+import com.zjsu.nsq.commons.web.ApiResponse;
+import com.zjsu.nsq.commons.web.InternalMediaTypes;
+import com.zjsu.nsq.user.dto.StudentSummary;
+import com.zjsu.nsq.user.dto.StudentView;
 import com.zjsu.nsq.user.model.User;
 import com.zjsu.nsq.user.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.env.Environment;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.InetAddress;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -23,23 +27,24 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    @Value("${server.port}")
-    private String serverPort;
-
     private final UserService service;
-    private final Environment environment;
+    private final InstanceIdentity instanceIdentity;
+    private final LoadBalancedRequestLogger requestLogger;
 
     @Autowired
-    public UserController(UserService service, Environment environment) {
+    public UserController(UserService service,
+                          InstanceIdentity instanceIdentity,
+                          LoadBalancedRequestLogger requestLogger) {
         this.service = service;
-        this.environment = environment;
+        this.instanceIdentity = instanceIdentity;
+        this.requestLogger = requestLogger;
     }
 
     /**
      * 获取当前用户信息（从网关请求头中获取）
      */
     @GetMapping("/current")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCurrentUser(
             @RequestHeader("X-User-Id") String userId,
             @RequestHeader("X-Username") String username,
             @RequestHeader("X-User-Role") String role) {
@@ -79,12 +84,12 @@ public class UserController {
      * 作业要求接口：GET /api/users/students/{id}
      */
     @GetMapping("/students/{id}")
-    public ResponseEntity<Map<String, Object>> getStudentById(
+    public ResponseEntity<ApiResponse<StudentView>> getStudentById(
             @PathVariable Long id,
             @RequestHeader(value = "X-User-Id", required = false) String authUserId,
             @RequestHeader(value = "X-Username", required = false) String authUsername) {
 
-        logger.info("用户 {} 查询学生信息 - ID: {}", authUsername, id);
+        logger.debug("用户 {} 查询学生信息 - ID: {}", authUsername, id);
 
         try {
             Optional<User> userOptional = service.findById(id);
@@ -95,21 +100,10 @@ public class UserController {
 
             User user = userOptional.get();
 
-            // 构建返回给 enrollment-service 的 StudentDto 格式
-            Map<String, Object> studentData = new HashMap<>();
-            studentData.put("id", user.getId());
-            studentData.put("userId", user.getUserId());       // 学号/工号
-            studentData.put("name", user.getName());           // 姓名
-            studentData.put("role", user.getRole().name());    // 角色
-            studentData.put("major", user.getMajor());         // 专业
-            studentData.put("grade", user.getGrade());         // 年级
-            studentData.put("email", user.getEmail());         // 邮箱
-            studentData.put("createdAt", user.getCreatedAt()); // 创建时间
-
-            logger.info("✅ 返回学生信息 - id: {}, name: {}, role: {}",
+            logger.debug("✅ 返回学生信息 - id: {}, name: {}, role: {}",
                     id, user.getName(), user.getRole());
 
-            return ResponseEntity.ok(createResponse(200, "成功", studentData));
+            return ResponseEntity.ok(createResponse(200, "成功", StudentView.from(user)));
 
         } catch (Exception e) {
             logger.error("❌ 获取学生信息失败 - id: {}", id, e);
@@ -118,16 +112,27 @@ public class UserController {
         }
     }
 
+    /**
+     * 获取学生信息的服务间版本：Accept: application/x-jackson-smile 时命中
+     * 返回 Smile 编码的精简视图（enrollment-service 选课校验用），其他 Accept 仍返回上面的 JSON
+     */
+    @GetMapping(value = "/students/{id}", produces = InternalMediaTypes.SMILE_VALUE)
+    public ResponseEntity<ApiResponse<StudentSummary>> getStudentSummary(@PathVariable Long id) {
+        return service.findById(id)
+                .map(user -> ResponseEntity.ok(createResponse(200, "成功", StudentSummary.from(user))))
+                .orElseGet(() -> ResponseEntity.status(404).body(createResponse(404, "用户不存在", null)));
+    }
+
     /**
      * 兼容接口：同时支持字符串ID的查询（为现有接口提供兼容）
      */
     @GetMapping("/students/by-userid/{userId}")
-    public ResponseEntity<Map<String, Object>> getStudentByUserId(
+    public ResponseEntity<ApiResponse<StudentView>> getStudentByUserId(
             @PathVariable String userId,
             @RequestHeader(value = "X-User-Id", required = false) String authUserId,
             @RequestHeader(value = "X-Username", required = false) String authUsername) {
 
-        logger.info("用户 {} 查询学生信息 - UserID: {}", authUsername, userId);
+        logger.debug("用户 {} 查询学生信息 - UserID: {}", authUsername, userId);
 
         try {
             Optional<User> userOptional = service.findByUserId(userId);
@@ -138,19 +143,9 @@ public class UserController {
 
             User user = userOptional.get();
 
-            Map<String, Object> studentData = new HashMap<>();
-            studentData.put("id", user.getId());
-            studentData.put("userId", user.getUserId());
-            studentData.put("name", user.getName());
-            studentData.put("role", user.getRole().name());
-            studentData.put("major", user.getMajor());
-            studentData.put("grade", user.getGrade());
-            studentData.put("email", user.getEmail());
-            studentData.put("createdAt", user.getCreatedAt());
-
-            logger.info("✅ 返回学生信息 - userId: {}, name: {}", userId, user.getName());
+            logger.debug("✅ 返回学生信息 - userId: {}, name: {}", userId, user.getName());
 
-            return ResponseEntity.ok(createResponse(200, "成功", studentData));
+            return ResponseEntity.ok(createResponse(200, "成功", StudentView.from(user)));
 
         } catch (Exception e) {
             logger.error("❌ 获取学生信息失败 - userId: {}", userId, e);
@@ -163,14 +158,14 @@ public class UserController {
      * 负载均衡测试接口
      */
     @GetMapping("/lb-test")
-    public ResponseEntity<Map<String, Object>> loadBalancerTest(
+    public ResponseEntity<ApiResponse<Map<String, Object>>> loadBalancerTest(
             @RequestHeader(value = "X-User-Id", required = false) String userId,
             @RequestHeader(value = "X-Username", required = false) String username) {
 
         logger.info("用户 {} 访问负载均衡测试", username);
 
         String timestamp = LocalDateTime.now().format(formatter);
-        String instanceInfo = getInstanceInfo();
+        String instanceInfo = instanceIdentity.describe();
 
         Map<String, Object> response = new HashMap<>();
         response.put("service", "user-service");
@@ -189,46 +184,18 @@ public class UserController {
         return ResponseEntity.ok(createResponse(200, "Success", response));
     }
 
-    /**
-     * 获取实例信息字符串
-     */
-    private String getInstanceInfo() {
-        try {
-            return String.format("IP: %s, Port: %s",
-                    InetAddress.getLocalHost().getHostAddress(),
-                    serverPort);
-        } catch (Exception e) {
-            return "Port: " + serverPort;
-        }
-    }
-
-    /**
-     * 记录负载均衡请求日志
-     */
-    private void logLoadBalancedRequest(String methodName, String param) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        String instanceInfo = getInstanceInfo();
-
-        logger.info("【负载均衡】user-service 实例: {} 处理了 {}({}) 请求，时间: {}",
-                instanceInfo, methodName, param, timestamp);
-    }
-
     /**
      * 创建统一响应格式
      */
-    private Map<String, Object> createResponse(int code, String msg, Object data) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("code", code);
-        response.put("message", msg);
-        response.put("data", data);
-        return response;
+    private static <T> ApiResponse<T> createResponse(int code, String msg, T data) {
+        return ApiResponse.of(code, msg, data);
     }
 
     /**
      * 获取服务实例信息（用于负载均衡测试）
      */
     @GetMapping("/instance-info")
-    public ResponseEntity<Map<String, Object>> getInstanceInfoEndpoint(
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getInstanceInfoEndpoint(
             @RequestHeader(value = "X-User-Id", required = false) String userId,
             @RequestHeader(value = "X-Username", required = false) String username) {
 
@@ -236,7 +203,7 @@ public class UserController {
 
         Map<String, Object> response = new HashMap<>();
         response.put("service", "user-service");
-        response.put("instance", getInstanceInfo());
+        response.put("instance", instanceIdentity.describe());
         response.put("timestamp", System.currentTimeMillis());
         response.put("requestedBy", username);
         return ResponseEntity.ok(createResponse(200, "Success", response));
@@ -246,14 +213,14 @@ public class UserController {
      * 健康检查接口（负载均衡专用）
      */
     @GetMapping("/health/lb")
-    public ResponseEntity<Map<String, Object>> loadBalancerHealth(
+    public ResponseEntity<ApiResponse<Map<String, Object>>> loadBalancerHealth(
             @RequestHeader(value = "X-User-Id", required = false) String userId,
             @RequestHeader(value = "X-Username", required = false) String username) {
 
         Map<String, Object> health = new HashMap<>();
         health.put("status", "UP");
         health.put("service", "user-service");
-        health.put("instance", getInstanceInfo());
+        health.put("instance", instanceIdentity.describe());
         health.put("timestamp", System.currentTimeMillis());
         health.put("message", "Ready for load balancing");
         health.put("currentUser", username);
@@ -264,55 +231,44 @@ public class UserController {
      * 获取服务实例信息（用于负载均衡测试）
      */
     @GetMapping("/port")
-    public ResponseEntity<Map<String, Object>> getPort(
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPort(
             @RequestHeader(value = "X-User-Id", required = false) String userId,
             @RequestHeader(value = "X-Username", required = false) String username) {
 
-        logLoadBalancedRequest("getPort", "");
+        requestLogger.log("getPort", "");
 
         Map<String, Object> response = new HashMap<>();
         response.put("service", "user-service");
         response.put("requestedBy", username);
 
-        try {
-            // 获取端口
-            String port = environment.getProperty("local.server.port");
-            response.put("port", port);
-
-            // 获取IP地址
-            String ip = InetAddress.getLocalHost().getHostAddress();
-            response.put("ip", ip);
-
-            response.put("timestamp", System.currentTimeMillis());
-        } catch (Exception e) {
-            response.put("error", e.getMessage());
-            response.put("port", "unknown");
-            response.put("ip", "unknown");
-            response.put("timestamp", System.currentTimeMillis());
-        }
+        // 端口和IP取自启动时缓存的实例信息，不再每次请求都解析本机地址
+        String ip = instanceIdentity.hostAddress();
+        response.put("port", instanceIdentity.port());
+        response.put("ip", ip != null ? ip : "unknown");
+        response.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(createResponse(200, "Success", response));
     }
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> list(
+    public ResponseEntity<ApiResponse<List<User>>> list(
             @RequestHeader(value = "X-User-Id", required = false) String userId,
             @RequestHeader(value = "X-Username", required = false) String username) {
 
         logger.info("用户 {} 查询所有用户", username);
-        logLoadBalancedRequest("list", "all");
+        requestLogger.log("list", "all");
 
         return ResponseEntity.ok(createResponse(200, "Success", service.findAll()));
     }
 
     @GetMapping("/{identifier}")
-    public ResponseEntity<Map<String, Object>> getUserById(
+    public ResponseEntity<ApiResponse<User>> getUserById(
             @PathVariable String identifier,
             @RequestHeader(value = "X-User-Id", required = false) String authUserId,
             @RequestHeader(value = "X-Username", required = false) String authUsername) {
 
         logger.info("用户 {} 查询用户信息: {}", authUsername, identifier);
-        logLoadBalancedRequest("getUserById", identifier);
+        requestLogger.log("getUserById", identifier);
 
         Optional<User> user = Optional.empty();
 
@@ -336,7 +292,7 @@ public class UserController {
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> create(
+    public ResponseEntity<ApiResponse<User>> create(
             @RequestBody User u,
             @RequestHeader("X-User-Id") String operatorId,
             @RequestHeader("X-Username") String operatorName,
@@ -345,7 +301,7 @@ public class UserController {
         logger.info("用户 {} ({}, 角色: {}) 创建新用户: {}",
                 operatorName, operatorId, operatorRole, u.getUserId());
 
-        logLoadBalancedRequest("create", u.getUserId());
+        requestLogger.log("create", u.getUserId());
 
         // 检查操作者权限
         if (!"ADMIN".equals(operatorRole) && !"TEACHER".equals(operatorRole)) {
@@ -359,7 +315,7 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> update(
+    public ResponseEntity<ApiResponse<User>> update(
             @PathVariable Long id,
             @RequestBody User u,
             @RequestHeader("X-User-Id") String operatorId,
@@ -367,7 +323,7 @@ public class UserController {
             @RequestHeader("X-User-Role") String operatorRole) {
 
         logger.info("用户 {} (角色: {}) 更新用户ID: {}", operatorName, operatorRole, id);
-        logLoadBalancedRequest("update", String.valueOf(id));
+        requestLogger.log("update", String.valueOf(id));
 
         // 检查操作者权限
         if (!"ADMIN".equals(operatorRole)) {
@@ -385,14 +341,14 @@ public class UserController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> delete(
+    public ResponseEntity<ApiResponse<Void>> delete(
             @PathVariable Long id,
             @RequestHeader("X-User-Id") String operatorId,
             @RequestHeader("X-Username") String operatorName,
             @RequestHeader("X-User-Role") String operatorRole) {
 
         logger.info("用户 {} (角色: {}) 删除用户ID: {}", operatorName, operatorRole, id);
-        logLoadBalancedRequest("delete", String.valueOf(id));
+        requestLogger.log("delete", String.valueOf(id));
 
         // 检查操作者权限
         if (!"ADMIN".equals(operatorRole)) {
@@ -406,13 +362,13 @@ public class UserController {
     }
 
     @GetMapping("/by-userid/{userId}")
-    public ResponseEntity<Map<String, Object>> getByUserId(
+    public ResponseEntity<ApiResponse<User>> getByUserId(
             @PathVariable String userId,
             @RequestHeader(value = "X-User-Id", required = false) String authUserId,
             @RequestHeader(value = "X-Username", required = false) String authUsername) {
 
         logger.info("用户 {} 查询用户: {}", authUsername, userId);
-        logLoadBalancedRequest("getByUserId", userId);
+        requestLogger.log("getByUserId", userId);
 
         Optional<User> user = service.findByUserId(userId);
         if (user.isPresent()) {
@@ -430,14 +386,14 @@ public class UserController {
             @RequestHeader(value = "X-Username", required = false) String username) {
 
         logger.info("用户 {} 访问健康检查", username);
-        logLoadBalancedRequest("healthCheck", "");
+        requestLogger.log("healthCheck", "");
 
         Map<String, Object> response = new HashMap<>();
         response.put("code", 200);
         response.put("message", "User Service is running");
         response.put("timestamp", System.currentTimeMillis());
         response.put("service", "user-service");
-        response.put("instance", getInstanceInfo());
+        response.put("instance", instanceIdentity.describe());
         response.put("currentUser", username);
         return ResponseEntity.ok(response);
     }
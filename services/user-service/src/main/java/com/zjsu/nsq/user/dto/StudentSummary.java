@@ -0,0 +1,21 @@
+package com.zjsu.nsq.user.dto;
+
+import com.zjsu.nsq.user.model.User;
+
+/**
+ * 服务间调用的精简学生视图（Smile 编码）
+ * 只包含 enrollment-service 校验学生时需要的字段：不含专业、年级、邮箱和创建时间
+ */
+public record StudentSummary(Long id,
+                             String userId,
+                             String name,
+                             String role) {
+
+    public static StudentSummary from(User user) {
+        return new StudentSummary(
+                user.getId(),
+                user.getUserId(),
+                user.getName(),
+                user.getRole() != null ? user.getRole().name() : null);
+    }
+}
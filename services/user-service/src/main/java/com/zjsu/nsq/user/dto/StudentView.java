@@ -0,0 +1,30 @@
+package com.zjsu.nsq.user.dto;
+
+import com.zjsu.nsq.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * 学生信息视图（enrollment-service 的 StudentDto.Data 按这个结构解析，不含密码）
+ */
+public record StudentView(Long id,
+                          String userId,
+                          String name,
+                          String role,
+                          String major,
+                          Integer grade,
+                          String email,
+                          LocalDateTime createdAt) {
+
+    public static StudentView from(User user) {
+        return new StudentView(
+                user.getId(),
+                user.getUserId(),
+                user.getName(),
+                user.getRole() != null ? user.getRole().name() : null,
+                user.getMajor(),
+                user.getGrade(),
+                user.getEmail(),
+                user.getCreatedAt());
+    }
+}
@@ -1,45 +1,39 @@
 package com.zjsu.nsq.user.exception;
 
+import com.zjsu.nsq.commons.web.ApiResponse;
 import com.zjsu.nsq.user.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.HashMap;
-import java.util.Map;
-
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    private Map<String, Object> createErrorResponse(int code, String message) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("code", code);
-        errorResponse.put("message", message);
-        errorResponse.put("data", null);
-        return errorResponse;
+    private ApiResponse<Void> createErrorResponse(int code, String message) {
+        return ApiResponse.error(code, message);
     }
 
     @ExceptionHandler(UserService.UserNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleUserNotFound(UserService.UserNotFoundException e) {
+    public ResponseEntity<ApiResponse<Void>> handleUserNotFound(UserService.UserNotFoundException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(createErrorResponse(HttpStatus.NOT_FOUND.value(), e.getMessage()));
     }
 
     @ExceptionHandler(UserService.UserAlreadyExistsException.class)
-    public ResponseEntity<Map<String, Object>> handleUserAlreadyExists(UserService.UserAlreadyExistsException e) {
+    public ResponseEntity<ApiResponse<Void>> handleUserAlreadyExists(UserService.UserAlreadyExistsException e) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body(createErrorResponse(HttpStatus.CONFLICT.value(), e.getMessage()));
     }
 
     @ExceptionHandler(UserService.InvalidUserDataException.class)
-    public ResponseEntity<Map<String, Object>> handleInvalidUserData(UserService.InvalidUserDataException e) {
+    public ResponseEntity<ApiResponse<Void>> handleInvalidUserData(UserService.InvalidUserDataException e) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(createErrorResponse(HttpStatus.BAD_REQUEST.value(), e.getMessage()));
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGlobalException(Exception e) {
+    public ResponseEntity<ApiResponse<Void>> handleGlobalException(Exception e) {
         e.printStackTrace();
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), "系统错误：" + e.getMessage()));